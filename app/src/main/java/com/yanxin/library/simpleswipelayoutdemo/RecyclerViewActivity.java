@@ -5,6 +5,9 @@ import android.support.v7.app.AppCompatActivity;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
 
+import com.yanxin.library.simpleswipelayout.SwipeItemTouchListener;
+import com.yanxin.library.simpleswipelayout.SwipeMenuOverlay;
+
 public class RecyclerViewActivity extends AppCompatActivity {
 
     private RecyclerView recyclerView;
@@ -19,6 +22,8 @@ public class RecyclerViewActivity extends AppCompatActivity {
         recyclerView.addItemDecoration(new DividerItemDecoration(this, DividerItemDecoration.VERTICAL_LIST, 0));
         mAdapter = new RecyclerViewAdapter(this);
         recyclerView.setAdapter(mAdapter);
+        SwipeItemTouchListener.attach(recyclerView);
+        SwipeMenuOverlay.attach(recyclerView, null);
     }
 
 }
@@ -9,6 +9,8 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import com.yanxin.library.simpleswipelayout.SimpleSwipeLayout;
+import com.yanxin.library.simpleswipelayout.SwipeStateRegistry;
+import com.yanxin.library.simpleswipelayout.interfaces.SwipeMenuClickListener;
 
 /**
  * Created by YanXin on 2015/12/30.
@@ -16,6 +18,7 @@ import com.yanxin.library.simpleswipelayout.SimpleSwipeLayout;
 public class RecyclerViewAdapter extends RecyclerView.Adapter {
 
     private Context mContext;
+    private SwipeStateRegistry mSwipeStateRegistry;
 
     public static final String[] adapterData = new String[]{"Alabama", "Alaska", "Arizona", "Arkansas", "California",
             "Colorado", "Connecticut", "Delaware", "Florida", "Georgia", "Hawaii", "Idaho", "Illinois",
@@ -28,6 +31,27 @@ public class RecyclerViewAdapter extends RecyclerView.Adapter {
 
     public RecyclerViewAdapter(Context context) {
         mContext = context;
+        mSwipeStateRegistry = new SwipeStateRegistry(this);
+        mSwipeStateRegistry.setSingleOpen(true);
+        mSwipeStateRegistry.setMenuClickListener(new SwipeMenuClickListener() {
+            @Override
+            public void onMenuClick(SimpleSwipeLayout layout, int id, int position) {
+                if (position == RecyclerView.NO_POSITION)
+                    return;
+                String s = adapterData[position];
+                switch (id) {
+                    case R.id.menu1:
+                        Toast.makeText(mContext, "收藏" + s, Toast.LENGTH_SHORT).show();
+                        break;
+                    case R.id.menu2:
+                        Toast.makeText(mContext, "删除" + s, Toast.LENGTH_SHORT).show();
+                        break;
+                    case R.id.content:
+                        Toast.makeText(mContext, "点击" + s, Toast.LENGTH_SHORT).show();
+                        break;
+                }
+            }
+        });
     }
 
     @Override
@@ -58,24 +82,9 @@ public class RecyclerViewAdapter extends RecyclerView.Adapter {
             mSimpleSwipeLayout = (SimpleSwipeLayout) itemView.findViewById(R.id.swipe_layout);
         }
 
-        public void bind(final int position, final String s) {
+        public void bind(int position, String s) {
             mContent.setText(s);
-            mSimpleSwipeLayout.setOnMenuClickListener(new SimpleSwipeLayout.onMenuClickListener() {
-                @Override
-                public void onMenuClick(View view) {
-                    switch (view.getId()) {
-                        case R.id.menu1:
-                            Toast.makeText(mContext, "收藏" + s, Toast.LENGTH_SHORT).show();
-                            break;
-                        case R.id.menu2:
-                            Toast.makeText(mContext, "删除" + s, Toast.LENGTH_SHORT).show();
-                            break;
-                        case R.id.content:
-                            Toast.makeText(mContext, "点击" + s, Toast.LENGTH_SHORT).show();
-                            break;
-                    }
-                }
-            });
+            mSwipeStateRegistry.bind(mSimpleSwipeLayout, position);
         }
 
     }
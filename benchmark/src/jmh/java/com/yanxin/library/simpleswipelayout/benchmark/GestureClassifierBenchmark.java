@@ -0,0 +1,53 @@
+package com.yanxin.library.simpleswipelayout.benchmark;
+
+import com.yanxin.library.simpleswipelayout.gesture.GestureClassifier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Cost of classifying one ACTION_MOVE as horizontal drag or not.
+ */
+@State(Scope.Thread)
+public class GestureClassifierBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    private final float[] mX = new float[SAMPLES];
+    private final float[] mY = new float[SAMPLES];
+    private final GestureClassifier mClassifier = new GestureClassifier(16);
+    private int mIndex;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            mX[i] = random.nextFloat() * 200 - 100;
+            mY[i] = random.nextFloat() * 200 - 100;
+        }
+    }
+
+    /**
+     * A move of a gesture whose direction is not decided yet.
+     */
+    @Benchmark
+    public int undecidedMove() {
+        int i = mIndex++ & (SAMPLES - 1);
+        mClassifier.start(0, 0, 0);
+        return mClassifier.addSample(mX[i], mY[i]);
+    }
+
+    /**
+     * A move of a gesture whose direction is already locked.
+     */
+    @Benchmark
+    public int lockedMove() {
+        int i = mIndex++ & (SAMPLES - 1);
+        return mClassifier.addSample(mX[i], mY[i]);
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.yanxin.library.simpleswipelayout.benchmark;
+
+import com.yanxin.library.simpleswipelayout.geometry.MenuGeometry;
+import com.yanxin.library.simpleswipelayout.geometry.MenuPositionTable;
+import com.yanxin.library.simpleswipelayout.geometry.MenuRevealStrategy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of one drag frame of menu geometry, i.e. what the drag callback computes per frame.
+ */
+@State(Scope.Thread)
+public class MenuGeometryBenchmark {
+
+    @Param({"LayDown", "PullOut", "PullStack"})
+    public String mode;
+
+    @Param({"2", "4"})
+    public int menuCount;
+
+    private int mModeIndex;
+    private int[] mWidths;
+    private int[] mLefts;
+    private int mDragDistance;
+    private int mOffset;
+    private MenuPositionTable mTable;
+
+    @Setup
+    public void setup() {
+        mModeIndex = "LayDown".equals(mode) ? 0 : "PullOut".equals(mode) ? 1 : 2;
+        mWidths = new int[menuCount];
+        mLefts = new int[menuCount];
+        mDragDistance = 0;
+        for (int i = 0; i < menuCount; i++) {
+            mWidths[i] = 180 + i * 20;
+            mDragDistance += mWidths[i];
+        }
+        MenuRevealStrategy strategy = mModeIndex == 0 ? MenuGeometry.LAY_DOWN
+                : mModeIndex == 1 ? MenuGeometry.PULL_OUT : MenuGeometry.PULL_STACK;
+        mTable = MenuPositionTable.build(strategy, mWidths, menuCount, mDragDistance, 64 * 1024);
+    }
+
+    @Benchmark
+    public int frame() {
+        mOffset = mOffset <= -mDragDistance ? 0 : mOffset - 1;
+        switch (mModeIndex) {
+            case 0:
+                MenuGeometry.layDown(mOffset, 1080, mWidths, menuCount, mLefts);
+                break;
+            case 1:
+                MenuGeometry.pullOut(mOffset, 1080, mWidths, menuCount, mLefts);
+                break;
+            default:
+                MenuGeometry.pullStack(mOffset, 1080, mWidths, menuCount, mLefts);
+                break;
+        }
+        return mLefts[menuCount - 1];
+    }
+
+    @Benchmark
+    public int tableFrame() {
+        mOffset = mOffset <= -mDragDistance ? 0 : mOffset - 1;
+        mTable.lookup(mOffset, 1080, mLefts);
+        return mLefts[menuCount - 1];
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.yanxin.library.simpleswipelayout.benchmark;
+
+import com.yanxin.library.simpleswipelayout.gesture.SwipeDispatcher;
+import com.yanxin.library.simpleswipelayout.gesture.SwipeStateMachine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of the listener dispatch done for each drag move, through the same SwipeStateMachine
+ * and SwipeDispatcher that SimpleSwipeLayout uses. Batched runs flush every second move, as
+ * when touch events arrive at twice the frame rate.
+ */
+@State(Scope.Thread)
+public class SwipeDispatchBenchmark {
+
+    private static final int DRAG_DISTANCE = 400;
+
+    @Param({"false", "true"})
+    public boolean batched;
+
+    private final SwipeStateMachine mStateMachine = new SwipeStateMachine();
+    private SwipeDispatcher mDispatcher;
+    private boolean mFlushScheduled;
+    private int mLeft;
+    private int mDx = -1;
+    private int mMoves;
+
+    @Setup
+    public void setup(final Blackhole blackhole) {
+        mDispatcher = new SwipeDispatcher(new SwipeDispatcher.Callback() {
+            @Override
+            public void onStartOpen() {
+                blackhole.consume(1);
+            }
+
+            @Override
+            public void onOpen() {
+                blackhole.consume(2);
+            }
+
+            @Override
+            public void onStartClose() {
+                blackhole.consume(3);
+            }
+
+            @Override
+            public void onClose() {
+                blackhole.consume(4);
+            }
+
+            @Override
+            public void onUpdate(int dx, int dy) {
+                blackhole.consume(dx);
+            }
+
+            @Override
+            public void scheduleFlush() {
+                mFlushScheduled = true;
+            }
+
+            @Override
+            public void cancelFlush() {
+                mFlushScheduled = false;
+            }
+        });
+        mDispatcher.setBatchUpdates(batched);
+    }
+
+    @Benchmark
+    public void dispatch() {
+        if (mLeft <= -DRAG_DISTANCE || mLeft >= 0 && mDx > 0)
+            mDx = -mDx;
+        mLeft += mDx;
+        mDispatcher.dispatch(mStateMachine.onOffsetChanged(mLeft, DRAG_DISTANCE), mDx, 0);
+        if (mFlushScheduled && (++mMoves & 1) == 0)
+            mDispatcher.flush();
+    }
+
+}
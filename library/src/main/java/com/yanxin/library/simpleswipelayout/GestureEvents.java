@@ -0,0 +1,50 @@
+package com.yanxin.library.simpleswipelayout;
+
+import android.support.v4.view.MotionEventCompat;
+import android.view.MotionEvent;
+
+import com.yanxin.library.simpleswipelayout.gesture.GestureClassifier;
+
+/**
+ * Feeds MotionEvents into a {@link GestureClassifier}, following the active pointer and
+ * replaying the samples batched in a move event.
+ */
+final class GestureEvents {
+
+    private GestureEvents() {
+    }
+
+    static int classify(GestureClassifier classifier, MotionEvent event) {
+        switch (MotionEventCompat.getActionMasked(event)) {
+            case MotionEvent.ACTION_DOWN:
+                classifier.start(MotionEventCompat.getPointerId(event, 0), event.getX(), event.getY());
+                break;
+            case MotionEventCompat.ACTION_POINTER_UP:
+                int pointerIndex = MotionEventCompat.getActionIndex(event);
+                if (MotionEventCompat.getPointerId(event, pointerIndex) == classifier.getActivePointerId()) {
+                    int newIndex = pointerIndex == 0 ? 1 : 0;
+                    classifier.switchPointer(
+                            MotionEventCompat.getPointerId(event, newIndex),
+                            MotionEventCompat.getX(event, newIndex),
+                            MotionEventCompat.getY(event, newIndex)
+                    );
+                }
+                break;
+            case MotionEvent.ACTION_MOVE:
+                if (classifier.getDirection() != GestureClassifier.DIRECTION_UNDECIDED)
+                    break;
+                int index = MotionEventCompat.findPointerIndex(event, classifier.getActivePointerId());
+                if (index < 0)
+                    break;
+                for (int h = 0; h < event.getHistorySize(); h++) {
+                    if (classifier.addSample(event.getHistoricalX(index, h), event.getHistoricalY(index, h))
+                            != GestureClassifier.DIRECTION_UNDECIDED)
+                        return classifier.getDirection();
+                }
+                classifier.addSample(MotionEventCompat.getX(event, index), MotionEventCompat.getY(event, index));
+                break;
+        }
+        return classifier.getDirection();
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.yanxin.library.simpleswipelayout;
+
+/**
+ * Caps how many views of swiping rows may sit on a hardware layer at the same time.
+ * Rows sharing a budget promote their content and menu views only while they drag or settle.
+ */
+public class HardwareLayerBudget {
+
+    public static final int DEFAULT_MAX_LAYERS = 8;
+
+    private static final HardwareLayerBudget DEFAULT = new HardwareLayerBudget(DEFAULT_MAX_LAYERS);
+
+    private int mMaxLayers;
+    private int mActiveLayers;
+
+    public HardwareLayerBudget(int maxLayers) {
+        mMaxLayers = maxLayers;
+    }
+
+    public static HardwareLayerBudget getDefault() {
+        return DEFAULT;
+    }
+
+    public void setMaxLayers(int maxLayers) {
+        mMaxLayers = maxLayers;
+    }
+
+    public int getMaxLayers() {
+        return mMaxLayers;
+    }
+
+    public int getActiveLayers() {
+        return mActiveLayers;
+    }
+
+    int acquire(int wanted) {
+        int granted = Math.max(0, Math.min(wanted, mMaxLayers - mActiveLayers));
+        mActiveLayers += granted;
+        return granted;
+    }
+
+    void release(int count) {
+        mActiveLayers = Math.max(0, mActiveLayers - count);
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.yanxin.library.simpleswipelayout;
+
+import android.graphics.drawable.Drawable;
+
+/**
+ * A menu entry drawn directly by {@link SimpleSwipeLayout} instead of being a child view.
+ * Any of background, icon and label may be null.
+ */
+public class MenuAction {
+
+    private final int mId;
+    private final int mWidth;
+    private final Drawable mBackground;
+    private final Drawable mIcon;
+    private final CharSequence mLabel;
+
+    /**
+     * @param width width of the action in px; the height always follows the content view
+     */
+    public MenuAction(int id, int width, Drawable background, Drawable icon, CharSequence label) {
+        mId = id;
+        mWidth = width;
+        mBackground = background;
+        mIcon = icon;
+        mLabel = label;
+    }
+
+    public int getId() {
+        return mId;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public Drawable getBackground() {
+        return mBackground;
+    }
+
+    public Drawable getIcon() {
+        return mIcon;
+    }
+
+    public CharSequence getLabel() {
+        return mLabel;
+    }
+
+}
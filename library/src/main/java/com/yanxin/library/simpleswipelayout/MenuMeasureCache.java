@@ -0,0 +1,99 @@
+package com.yanxin.library.simpleswipelayout;
+
+import android.support.v4.util.LongSparseArray;
+import android.view.View;
+
+import com.yanxin.library.simpleswipelayout.geometry.MenuPositionTable;
+import com.yanxin.library.simpleswipelayout.geometry.MenuRevealStrategy;
+
+import java.util.List;
+
+/**
+ * Menu sizes shared by the rows of one list whose menus are identical. Rows are matched by a
+ * menu signature (see {@link SimpleSwipeLayout#setMenuSignature}) and by the specs they are
+ * measured with; a matching row that the parent sizes the same way takes the menu sizes from
+ * here instead of measuring its menus. Their menu position tables are shared the same way.
+ * Call {@link #invalidate} when the menus of a signature change.
+ */
+public class MenuMeasureCache {
+
+    private final LongSparseArray<Entry> mEntries = new LongSparseArray<>();
+    private final LongSparseArray<MenuPositionTable> mPositionTables = new LongSparseArray<>();
+
+    public void invalidate(long signature) {
+        mEntries.remove(signature);
+        mPositionTables.remove(signature);
+    }
+
+    public void invalidateAll() {
+        mEntries.clear();
+        mPositionTables.clear();
+    }
+
+    /**
+     * The position table of a signature, shared by its rows; built again only when a row asks for
+     * different widths, strategy or limit.
+     */
+    MenuPositionTable getPositionTable(long signature, MenuRevealStrategy strategy, int[] widths, int count,
+                                       int dragDistance, int maxBytes) {
+        MenuPositionTable table = mPositionTables.get(signature);
+        if (table != null && table.isBuiltFor(strategy, widths, count, dragDistance, maxBytes))
+            return table;
+        table = MenuPositionTable.build(strategy, widths, count, dragDistance, maxBytes);
+        if (table != null)
+            mPositionTables.put(signature, table);
+        else
+            mPositionTables.remove(signature);
+        return table;
+    }
+
+    Entry get(long signature, int widthSpec, int heightSpec, int count) {
+        Entry entry = get(signature, widthSpec, heightSpec);
+        return entry == null || entry.widths.length != count ? null : entry;
+    }
+
+    /**
+     * Same as above for a row whose menu is not inflated yet, so its menu count is unknown.
+     */
+    Entry get(long signature, int widthSpec, int heightSpec) {
+        Entry entry = mEntries.get(signature);
+        if (entry == null || entry.widthSpec != widthSpec || entry.heightSpec != heightSpec)
+            return null;
+        return entry;
+    }
+
+    void put(long signature, int widthSpec, int heightSpec, int measuredWidth, int measuredHeight,
+             List<View> menus) {
+        Entry entry = mEntries.get(signature);
+        if (entry == null || entry.widths.length != menus.size()) {
+            entry = new Entry(menus.size());
+            mEntries.put(signature, entry);
+        }
+        entry.widthSpec = widthSpec;
+        entry.heightSpec = heightSpec;
+        entry.measuredWidth = measuredWidth;
+        entry.measuredHeight = measuredHeight;
+        entry.dragDistance = 0;
+        for (int i = 0; i < menus.size(); i++) {
+            entry.widths[i] = menus.get(i).getMeasuredWidth();
+            entry.heights[i] = menus.get(i).getMeasuredHeight();
+            entry.dragDistance += entry.widths[i];
+        }
+    }
+
+    static final class Entry {
+        int widthSpec;
+        int heightSpec;
+        int measuredWidth;
+        int measuredHeight;
+        int dragDistance;
+        final int[] widths;
+        final int[] heights;
+
+        Entry(int count) {
+            widths = new int[count];
+            heights = new int[count];
+        }
+    }
+
+}
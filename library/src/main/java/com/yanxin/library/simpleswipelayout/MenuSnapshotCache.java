@@ -0,0 +1,109 @@
+package com.yanxin.library.simpleswipelayout;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.support.v4.util.LruCache;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded bitmap cache for menu strip snapshots, shared by the rows it is set on.
+ * The least recently drawn snapshots are evicted first, and evicted bitmaps are reused for
+ * the next snapshot of the same size, so memory stays flat in long lists.
+ */
+public class MenuSnapshotCache {
+
+    public static final int DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+
+    private static final int MAX_FREE_BITMAPS = 2;
+
+    private final LruCache<Object, Bitmap> mSnapshots;
+    private final List<Bitmap> mFreeBitmaps = new ArrayList<>(MAX_FREE_BITMAPS);
+    private final Canvas mCanvas = new Canvas();
+    private final int mMaxBytes;
+
+    public MenuSnapshotCache(int maxBytes) {
+        mMaxBytes = maxBytes;
+        mSnapshots = new LruCache<Object, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Object key, Bitmap value) {
+                return value.getRowBytes() * value.getHeight();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Object key, Bitmap oldValue, Bitmap newValue) {
+                if (oldValue != newValue)
+                    recycle(oldValue);
+            }
+        };
+    }
+
+    public int getMaxBytes() {
+        return mMaxBytes;
+    }
+
+    public void evictAll() {
+        mSnapshots.evictAll();
+        for (int i = 0; i < mFreeBitmaps.size(); i++)
+            mFreeBitmaps.get(i).recycle();
+        mFreeBitmaps.clear();
+    }
+
+    Bitmap get(Object key) {
+        return mSnapshots.get(key);
+    }
+
+    void remove(Object key) {
+        mSnapshots.remove(key);
+    }
+
+    /**
+     * Draw the menus side by side into one bitmap, each at the sum of the widths before it.
+     *
+     * @return the snapshot, or null if it would not fit in the cache
+     */
+    Bitmap capture(Object key, List<View> menus, int width, int height) {
+        if (width <= 0 || height <= 0 || (long) width * height * 4 > mMaxBytes / 2)
+            return null;
+        Bitmap bitmap = mSnapshots.get(key);
+        if (bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height)
+            bitmap = obtain(width, height);
+        else
+            bitmap.eraseColor(0);
+        mCanvas.setBitmap(bitmap);
+        int left = 0;
+        for (int i = 0; i < menus.size(); i++) {
+            View menu = menus.get(i);
+            int saveCount = mCanvas.save();
+            mCanvas.translate(left, 0);
+            menu.draw(mCanvas);
+            mCanvas.restoreToCount(saveCount);
+            left += menu.getWidth();
+        }
+        mCanvas.setBitmap(null);
+        mSnapshots.put(key, bitmap);
+        return bitmap;
+    }
+
+    private Bitmap obtain(int width, int height) {
+        for (int i = 0; i < mFreeBitmaps.size(); i++) {
+            Bitmap bitmap = mFreeBitmaps.get(i);
+            if (bitmap.getWidth() == width && bitmap.getHeight() == height) {
+                mFreeBitmaps.remove(i);
+                bitmap.eraseColor(0);
+                return bitmap;
+            }
+        }
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    private void recycle(Bitmap bitmap) {
+        if (mFreeBitmaps.size() < MAX_FREE_BITMAPS)
+            mFreeBitmaps.add(bitmap);
+        else
+            bitmap.recycle();
+    }
+
+}
@@ -1,37 +1,130 @@
 package com.yanxin.library.simpleswipelayout;
 
+import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
 import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.support.v4.os.TraceCompat;
 import android.support.v4.view.MotionEventCompat;
 import android.support.v4.view.ViewCompat;
 import android.support.v4.widget.ViewDragHelper;
 import android.util.AttributeSet;
+import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.WindowManager;
 import android.widget.FrameLayout;
 
+import com.yanxin.library.simpleswipelayout.geometry.MenuGeometry;
+import com.yanxin.library.simpleswipelayout.geometry.MenuPositionTable;
+import com.yanxin.library.simpleswipelayout.geometry.MenuRevealStrategy;
+import com.yanxin.library.simpleswipelayout.gesture.CriticallyDampedSpring;
+import com.yanxin.library.simpleswipelayout.gesture.GestureClassifier;
+import com.yanxin.library.simpleswipelayout.gesture.SwipeDispatcher;
+import com.yanxin.library.simpleswipelayout.gesture.SwipeStateMachine;
+import com.yanxin.library.simpleswipelayout.interfaces.MenuBinder;
 import com.yanxin.library.simpleswipelayout.interfaces.SwipeListener;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 public class SimpleSwipeLayout extends FrameLayout {
 
+    private static final float FLING_PROJECTION_SECONDS = 0.15f;
+
+    private static final String TRACE_INTERCEPT = "SwipeLayout:intercept";
+    private static final String TRACE_TOUCH = "SwipeLayout:processTouchEvent";
+    private static final String TRACE_POSITION_CHANGED = "SwipeLayout:positionChanged";
+    private static final String TRACE_LAYOUT = "SwipeLayout:onLayout";
+    private static final String TRACE_SETTLE = "SwipeLayout:settle";
+
+    /**
+     * One listener for the content and menu views of every row; it finds the row through the
+     * clicked view's parent.
+     */
+    private static final OnClickListener sClickDispatcher = new OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            if (v.getParent() instanceof SimpleSwipeLayout)
+                ((SimpleSwipeLayout) v.getParent()).dispatchMenuClick(v);
+        }
+    };
+
     private int mDragDistance;
     private List<View> mMenuItemViewList;
     private View mContentView;
+    private int mPendingMenuLayout;
+    private int mMenuLayout;
+    private SwipeMenuOverlay mMenuOverlay;
+    private int mLastWidthMeasureSpec;
+    private int mLastHeightMeasureSpec;
+    private boolean mLayoutDirty = true;
+    private boolean mControllerDragging;
 
     private ViewDragHelper mDragHelper;
-    private int mValidDistance;
-    private Map<View, Rect> mViewInitLocationMap;
+    private SwipeSettler mSettler;
+    private GestureClassifier mGestureClassifier;
+    private float mMinVelocity;
+    private SwipeItemTouchListener mSwipeController;
+    private SwipeStateRegistry mStateRegistry;
+    private long mRegistryKey;
+    private Status mRestingStatus = Status.Close;
+    private final SwipeStateMachine mStateMachine = new SwipeStateMachine();
+
+    private int[] mMenuWidths;
+    private int[] mMenuLefts;
+    private int[] mMenuInitLefts;
+    private int[] mMenuInitTops;
+    private int[] mMenuInitRights;
+    private int[] mMenuInitBottoms;
+    private final Rect mTempRect = new Rect();
 
     private SwipeListener mSwipeListener;
     private onMenuClickListener mOnMenuClickListener;
+    private onMenuActionClickListener mOnMenuActionClickListener;
+    private MenuAction[] mMenuActions;
+    private int[] mActionWidths;
+    private int[] mActionLefts;
+    private Paint mActionPaint;
+    private final Paint.FontMetrics mActionFontMetrics = new Paint.FontMetrics();
+    private SwipeFrameTracker mFrameTracker;
+    private SwipeWorkTracker mWorkTracker;
+    private SwipeEventLog mEventLog;
+    private MenuSnapshotCache mSnapshotCache;
+    private Object mSnapshotKey;
+    private boolean mSnapshotDirty = true;
+    private boolean mDrawingSnapshot;
+    private Rect mSnapshotSrc;
+    private Rect mSnapshotDst;
+    private HardwareLayerBudget mLayerBudget;
+    private int mPromotedLayers;
+    private int[] mSavedLayerTypes;
+    private boolean[] mPromoted;
+    private boolean mSwipeActive;
+
+    private MenuBinder mMenuBinder;
+    private boolean mMenuBound;
+    private boolean mPrepareMenuOnMeasure;
+    private MenuMeasureCache mMeasureCache;
+    private MenuMeasureCache.Entry mMeasureEntry;
+    private long mMenuSignature;
+
+    private int mPositionTableMaxBytes;
+    private MenuPositionTable mPositionTable;
 
     private Mode mMode;
+    private MenuRevealStrategy mRevealStrategy;
+    private final boolean[] mTranslationDragModes = new boolean[Mode.values().length];
 
     public enum Status {
         Middle,
@@ -49,24 +142,371 @@ public class SimpleSwipeLayout extends FrameLayout {
         void onMenuClick(View view);
     }
 
+    public interface onMenuActionClickListener {
+        void onMenuActionClick(SimpleSwipeLayout layout, MenuAction action);
+    }
+
     public void setOnMenuClickListener(onMenuClickListener onMenuClickListener) {
         mOnMenuClickListener = onMenuClickListener;
     }
 
+    /**
+     * Taps on actions set with {@link #setMenuActions}. Without this listener they are reported
+     * to the {@link onMenuClickListener} with the layout itself as the view.
+     */
+    public void setOnMenuActionClickListener(onMenuActionClickListener onMenuActionClickListener) {
+        mOnMenuActionClickListener = onMenuActionClickListener;
+    }
+
+    /**
+     * Draw the menu from descriptors instead of child views. Menu children and a pending
+     * app:menu_layout are dropped; the actions are laid out by the current mode.
+     * Pass nothing to go back to an empty menu.
+     */
+    public void setMenuActions(MenuAction... actions) {
+        // Layer bookkeeping refers to the current menu views, so hand those layers back first.
+        demoteLayers();
+        setMenuActionCallbacks(null);
+        for (int i = 0; mMenuItemViewList != null && i < mMenuItemViewList.size(); i++)
+            removeView(mMenuItemViewList.get(i));
+        mPendingMenuLayout = 0;
+        mMenuLayout = 0;
+        initMenuItemViews();
+        mMenuActions = actions == null || actions.length == 0 ? null : actions;
+        int count = mMenuActions == null ? 0 : mMenuActions.length;
+        mActionWidths = new int[count];
+        mActionLefts = new int[count];
+        for (int i = 0; i < count; i++)
+            mActionWidths[i] = mMenuActions[i].getWidth();
+        setMenuActionCallbacks(this);
+        if (mActionPaint == null && count > 0) {
+            mActionPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            mActionPaint.setTextAlign(Paint.Align.CENTER);
+            mActionPaint.setColor(Color.WHITE);
+            mActionPaint.setTextSize(14 * getResources().getDisplayMetrics().scaledDensity);
+        }
+        if (mContentView == null)
+            return;
+        calculateDragDistance();
+        rebuildPositionTable();
+        mStateMachine.reset(mRestingStatus == Status.Open);
+        int dx = getRestingLeft() - mContentView.getLeft();
+        mContentView.offsetLeftAndRight(dx);
+        applyMenuPositions(mContentView.getLeft(), dx);
+        invalidate();
+    }
+
+    private void setMenuActionCallbacks(Drawable.Callback callback) {
+        for (int i = 0; mMenuActions != null && i < mMenuActions.length; i++) {
+            if (mMenuActions[i].getBackground() != null)
+                mMenuActions[i].getBackground().setCallback(callback);
+            if (mMenuActions[i].getIcon() != null)
+                mMenuActions[i].getIcon().setCallback(callback);
+        }
+    }
+
+    @Override
+    protected boolean verifyDrawable(Drawable who) {
+        for (int i = 0; mMenuActions != null && i < mMenuActions.length; i++) {
+            if (who == mMenuActions[i].getBackground() || who == mMenuActions[i].getIcon())
+                return true;
+        }
+        return super.verifyDrawable(who);
+    }
+
+    public void setMenuActionTextStyle(int color, float textSize) {
+        if (mActionPaint == null) {
+            mActionPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            mActionPaint.setTextAlign(Paint.Align.CENTER);
+        }
+        mActionPaint.setColor(color);
+        mActionPaint.setTextSize(textSize);
+        invalidate();
+    }
+
     public void setSwipeListener(SwipeListener swipeListener) {
         mSwipeListener = swipeListener;
     }
 
+    /**
+     * Deliver {@link SwipeListener#onUpdate} at most once per frame with the offset accumulated
+     * since the previous call, instead of once per drag callback.
+     */
+    public void setBatchUpdates(boolean batchUpdates) {
+        mDispatcher.setBatchUpdates(batchUpdates);
+    }
+
+    /**
+     * @param degrees the steepest move, measured from the horizontal axis, that still starts a swipe
+     */
+    public void setMaxDragAngle(float degrees) {
+        mGestureClassifier.setMaxDragAngle(degrees);
+    }
+
+    public float getMaxDragAngle() {
+        return mGestureClassifier.getMaxDragAngle();
+    }
+
+    /**
+     * Record drag and settle frame timing into the given metrics, or stop recording with null.
+     * Requires API 16; on older versions this does nothing.
+     */
+    public void setFrameMetrics(SwipeFrameMetrics metrics) {
+        if (mFrameTracker != null) {
+            mFrameTracker.end();
+            mFrameTracker = null;
+        }
+        if (metrics == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN)
+            return;
+        WindowManager windowManager = (WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE);
+        mFrameTracker = new SwipeFrameTracker(metrics, windowManager.getDefaultDisplay().getRefreshRate());
+    }
+
+    public SwipeFrameMetrics getFrameMetrics() {
+        return mFrameTracker == null ? null : mFrameTracker.getMetrics();
+    }
+
+    /**
+     * Count layout and invalidate work per drag or settle frame against a budget; null disables it.
+     */
+    public void setWorkBudget(SwipeWorkBudget budget) {
+        if (mWorkTracker != null) {
+            mWorkTracker.end();
+            mWorkTracker = null;
+        }
+        if (budget == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN)
+            return;
+        mWorkTracker = new SwipeWorkTracker(this, budget);
+        if (isSwipeActive())
+            mWorkTracker.begin();
+    }
+
+    public SwipeWorkBudget getWorkBudget() {
+        return mWorkTracker == null ? null : mWorkTracker.getBudget();
+    }
+
+    /**
+     * Record down, intercept, capture, offset, release and settle end events into a ring buffer
+     * that can be dumped after a janky gesture; null disables it.
+     */
+    public void setEventLog(SwipeEventLog eventLog) {
+        mEventLog = eventLog;
+    }
+
+    public SwipeEventLog getEventLog() {
+        return mEventLog;
+    }
+
+    /**
+     * While dragging and settling, draw the menu views from one snapshot kept in the given cache
+     * instead of redrawing them every frame. Pass null to always draw the views.
+     * The snapshot is retaken when menu sizes change, when the row is rebound through a
+     * {@link SwipeStateRegistry}, or after {@link #invalidateMenuSnapshot()}.
+     */
+    public void setMenuSnapshotCache(MenuSnapshotCache cache) {
+        if (mSnapshotCache != null && mSnapshotKey != null)
+            mSnapshotCache.remove(mSnapshotKey);
+        mSnapshotCache = cache;
+        if (cache != null && mSnapshotKey == null)
+            mSnapshotKey = new Object();
+        mSnapshotDirty = true;
+    }
+
+    /**
+     * Call after changing what a menu view shows outside of a rebind.
+     */
+    public void invalidateMenuSnapshot() {
+        mSnapshotDirty = true;
+    }
+
+    void logSwipeEvent(int type, float value) {
+        if (mEventLog != null)
+            mEventLog.record(type, System.identityHashCode(this), value);
+    }
+
+    /**
+     * @return how far the menu is revealed, from 0 (closed) to 1 (open)
+     */
+    public float getSwipeProgress() {
+        if (mContentView == null || mDragDistance == 0)
+            return 0;
+        return (float) (getPaddingLeft() - mContentView.getLeft()) / mDragDistance;
+    }
+
+    public void setMode(Mode mode) {
+        if (mMode == mode)
+            return;
+        mMode = mode;
+        mLayoutDirty = true;
+        requestLayout();
+    }
+
+    public Mode getMode() {
+        return mMode;
+    }
+
+    /**
+     * Use a custom menu geometry instead of the one of the current {@link Mode}.
+     * Pass null to go back to the built-in geometry.
+     */
+    public void setMenuRevealStrategy(MenuRevealStrategy strategy) {
+        mRevealStrategy = strategy;
+        mLayoutDirty = true;
+        requestLayout();
+    }
+
+    /**
+     * Bind the menu right before it first becomes visible, on drag capture or when opening,
+     * instead of in onBindViewHolder. Called at most once per bind generation; start a new
+     * generation with {@link #invalidateMenuBinding()} when the row is rebound. If the binder
+     * changes labels per row, update {@link #setMenuSignature} along with it, since rows sharing a
+     * signature share menu sizes.
+     */
+    public void setMenuBinder(MenuBinder binder) {
+        if (mMenuBinder == binder)
+            return;
+        mMenuBinder = binder;
+        mMenuBound = false;
+    }
+
+    public void invalidateMenuBinding() {
+        mMenuBound = false;
+    }
+
+    /**
+     * Inflate and bind the menu if needed, right before it can be seen.
+     */
+    private void prepareMenu() {
+        ensureMenuInflated();
+        if (mMenuBound || mMenuBinder == null || mMenuOverlay != null)
+            return;
+        mMenuBound = true;
+        mMenuBinder.onBindMenu(this, mMenuItemViewList);
+        mSnapshotDirty = true;
+    }
+
+    /**
+     * Share menu sizes with the other rows of a list through the given cache. Only rows with a
+     * menu signature use it: the one set with {@link #setMenuSignature}, or the app:menu_layout
+     * resource when the menu was inflated from one. Rows with a {@link MenuBinder} need an explicit
+     * signature, and must get a new one (or 0) when the binder gives them different labels.
+     */
+    public void setMenuMeasureCache(MenuMeasureCache cache) {
+        mMeasureCache = cache;
+    }
+
+    /**
+     * Rows with the same signature promise byte-identical menus (same views, labels and styles).
+     * 0 means the menu is unique to this row.
+     */
+    public void setMenuSignature(long signature) {
+        if (mMenuSignature == signature)
+            return;
+        mMenuSignature = signature;
+        requestLayout();
+    }
+
+    private long getMenuSignature() {
+        if (mMenuSignature != 0)
+            return mMenuSignature;
+        return mMenuLayout != 0 ? mMenuLayout : mPendingMenuLayout;
+    }
+
+    /**
+     * Precompute the menu edges for every drag offset at layout time, so drag frames are table
+     * lookups. Menus whose table would exceed maxBytes are computed on the fly; 0 disables it.
+     * A custom {@link MenuRevealStrategy} must place menus relative to its anchor.
+     */
+    public void setMenuPositionTableLimit(int maxBytes) {
+        if (mPositionTableMaxBytes == maxBytes)
+            return;
+        mPositionTableMaxBytes = maxBytes;
+        rebuildPositionTable();
+    }
+
+    private void rebuildPositionTable() {
+        if (mPositionTableMaxBytes <= 0 || mDragDistance == 0 || mMenuOverlay != null) {
+            mPositionTable = null;
+            return;
+        }
+        MenuRevealStrategy strategy = mRevealStrategy;
+        if (strategy == null) {
+            switch (mMode) {
+                case LayDown:
+                    strategy = MenuGeometry.LAY_DOWN;
+                    break;
+                case PullOut:
+                    strategy = MenuGeometry.PULL_OUT;
+                    break;
+                default:
+                    strategy = MenuGeometry.PULL_STACK;
+                    break;
+            }
+        }
+        int[] widths = mMenuActions != null ? mActionWidths : mMenuWidths;
+        int count = mMenuActions != null ? mActionWidths.length : mMenuItemViewList.size();
+        if (mPositionTable != null
+                && mPositionTable.isBuiltFor(strategy, widths, count, mDragDistance, mPositionTableMaxBytes))
+            return;
+        if (mMenuActions == null && mMeasureCache != null && getMenuSignature() != 0)
+            mPositionTable = mMeasureCache.getPositionTable(getMenuSignature(), strategy, widths, count,
+                    mDragDistance, mPositionTableMaxBytes);
+        else
+            mPositionTable = MenuPositionTable.build(strategy, widths, count, mDragDistance,
+                    mPositionTableMaxBytes);
+    }
+
+    /**
+     * Move menus with translationX during drag instead of calling layout() on every frame, in
+     * every mode.
+     */
+    public void setTranslationDragEnabled(boolean enabled) {
+        for (Mode mode : Mode.values())
+            setTranslationDragEnabled(mode, enabled);
+    }
+
+    /**
+     * Same as above for one mode only, for modes whose menus are cheaper to move one way or the
+     * other.
+     */
+    public void setTranslationDragEnabled(Mode mode, boolean enabled) {
+        if (mTranslationDragModes[mode.ordinal()] == enabled)
+            return;
+        mTranslationDragModes[mode.ordinal()] = enabled;
+        if (mode != mMode)
+            return;
+        mLayoutDirty = true;
+        requestLayout();
+    }
+
+    /**
+     * @return whether menus move with translationX in the current mode
+     */
+    public boolean isTranslationDragEnabled() {
+        return isTranslationDragEnabled(mMode);
+    }
+
+    public boolean isTranslationDragEnabled(Mode mode) {
+        return mTranslationDragModes[mode.ordinal()];
+    }
+
     private ViewDragHelper.Callback mDragHelperCallback = new ViewDragHelper.Callback() {
         @Override
         public boolean tryCaptureView(View child, int pointerId) {
             if (child != mContentView) {
-                mDragHelper.captureChildView(mContentView, pointerId);
+                getDragHelper().captureChildView(mContentView, pointerId);
                 return false;
             }
+            // Capture happens on ACTION_DOWN; the menu is prepared in checkIsDrag once the
+            // gesture turns out to be a horizontal drag, so taps never inflate or bind it.
             return true;
         }
 
+        @Override
+        public void onViewCaptured(View capturedChild, int activePointerId) {
+            logSwipeEvent(SwipeEventLog.EVENT_CAPTURE, 0);
+        }
+
         @Override
         public int clampViewPositionHorizontal(View child, int left, int dx) {
             int minLeft = getPaddingLeft() - mDragDistance;
@@ -83,89 +523,490 @@ public class SimpleSwipeLayout extends FrameLayout {
         @Override
         public void onViewReleased(View releasedChild, float xvel, float yvel) {
             super.onViewReleased(releasedChild, xvel, yvel);
-            processHandRelease(releasedChild, xvel);
-            if (mSwipeListener != null)
-                mSwipeListener.onHandRelease(SimpleSwipeLayout.this, xvel, yvel);
+            onContentReleased(xvel, yvel);
         }
 
         @Override
         public void onViewPositionChanged(View changedView, int left, int top, int dx, int dy) {
-            switch (mMode) {
-                case PullOut:
-                    onPullOutViewPositionChanged(left, dx);
-                    break;
-                case PullStack:
-                    onPullStackViewPositionChanged(left, dx);
+            onContentPositionChanged(left, top, dx, dy);
+        }
+
+        @Override
+        public void onViewDragStateChanged(int state) {
+            switch (state) {
+                case ViewDragHelper.STATE_IDLE:
+                    if (!isSettling())
+                        onSwipeIdle();
                     break;
             }
-
-            notifySwipeListener(left, top, dx, dy);
         }
     };
 
-    private void onPullOutViewPositionChanged(int left, int dx) {
-        for (View view : mMenuItemViewList) {
-            Rect rect = mViewInitLocationMap.get(view);
-            view.layout(rect.left + dx, rect.top, rect.right + dx, rect.bottom);
-            calenderRect(view);
+    private void onSwipeActive(int phase) {
+        mSwipeActive = true;
+        if (mSnapshotCache != null && !mSnapshotDirty && isMenuLayoutRequested())
+            mSnapshotDirty = true;
+        if (mFrameTracker != null)
+            mFrameTracker.begin(phase);
+        if (mWorkTracker != null)
+            mWorkTracker.begin();
+        if (mLayerBudget != null)
+            promoteLayers();
+    }
+
+    private void onSwipeIdle() {
+        mSwipeActive = false;
+        if (mFrameTracker != null)
+            mFrameTracker.end();
+        if (mWorkTracker != null)
+            mWorkTracker.end();
+        demoteLayers();
+    }
+
+    /**
+     * Promote the content view, and the menus that are at least partly revealed; the others
+     * are promoted by {@link #promoteRevealedMenus()} as the drag uncovers them.
+     */
+    private void promoteLayers() {
+        if (mContentView == null)
+            return;
+        int count = 1 + (mMenuItemViewList == null ? 0 : mMenuItemViewList.size());
+        if (mSavedLayerTypes == null) {
+            mSavedLayerTypes = new int[count];
+            mPromoted = new boolean[count];
+        } else if (mSavedLayerTypes.length < count) {
+            mSavedLayerTypes = Arrays.copyOf(mSavedLayerTypes, count);
+            mPromoted = Arrays.copyOf(mPromoted, count);
         }
-        invalidate();
+        if (!mPromoted[0] && !promoteLayer(0, mContentView))
+            return;
+        promoteRevealedMenus();
     }
 
-    private void onPullStackViewPositionChanged(int left, int dx) {
-        int distanceX = left - getPaddingLeft();
-        int result = distanceX / mMenuItemViewList.size();
-        int remainder = distanceX % mMenuItemViewList.size();
-        int unit = 0;
-        if (remainder != 0)
-            unit = remainder / Math.abs(remainder);
-        for (int i = 0; i < mMenuItemViewList.size(); i++) {
+    private void promoteRevealedMenus() {
+        int count = Math.min(mMenuItemViewList.size(), mPromoted.length - 1);
+        if (mPromotedLayers > count)
+            return;
+        int contentRight = mContentView.getRight();
+        int rowRight = getWidth() - getPaddingRight();
+        for (int i = 0; i < count; i++) {
             View view = mMenuItemViewList.get(i);
-            if (i == 0) {
-                view.offsetLeftAndRight(dx);
+            if (mPromoted[i + 1])
+                continue;
+            float translationX = ViewCompat.getTranslationX(view);
+            if (view.getRight() + translationX <= contentRight || view.getLeft() + translationX >= rowRight)
+                continue;
+            if (!promoteLayer(i + 1, view))
+                return;
+        }
+    }
+
+    private boolean promoteLayer(int index, View view) {
+        if (mLayerBudget.acquire(1) == 0)
+            return false;
+        mSavedLayerTypes[index] = ViewCompat.getLayerType(view);
+        ViewCompat.setLayerType(view, ViewCompat.LAYER_TYPE_HARDWARE, null);
+        mPromoted[index] = true;
+        mPromotedLayers++;
+        return true;
+    }
+
+    private void demoteLayers() {
+        if (mPromotedLayers == 0)
+            return;
+        int count = Math.min(1 + mMenuItemViewList.size(), mPromoted.length);
+        for (int i = 0; i < count; i++) {
+            if (!mPromoted[i])
                 continue;
+            View view = i == 0 ? mContentView : mMenuItemViewList.get(i - 1);
+            ViewCompat.setLayerType(view, mSavedLayerTypes[i], null);
+            mPromoted[i] = false;
+        }
+        mLayerBudget.release(mPromotedLayers);
+        mPromotedLayers = 0;
+    }
+
+    /**
+     * Put the content view and the revealed menu views on hardware layers while this row drags
+     * or settles, so moving it is compositing only. Uses {@link HardwareLayerBudget#getDefault()}.
+     */
+    public void setHardwareLayersEnabled(boolean enabled) {
+        setHardwareLayerBudget(enabled ? HardwareLayerBudget.getDefault() : null);
+    }
+
+    /**
+     * Same as {@link #setHardwareLayersEnabled(boolean)} with a budget shared by a chosen set of rows.
+     */
+    public void setHardwareLayerBudget(HardwareLayerBudget budget) {
+        demoteLayers();
+        mLayerBudget = budget;
+    }
+
+    private void onContentReleased(float xvel, float yvel) {
+        logSwipeEvent(SwipeEventLog.EVENT_RELEASE, xvel);
+        processHandRelease(mContentView, xvel);
+        if (mSwipeListener != null)
+            mSwipeListener.onHandRelease(this, xvel, yvel);
+    }
+
+    private void onContentPositionChanged(int left, int top, int dx, int dy) {
+        TraceCompat.beginSection(TRACE_POSITION_CHANGED);
+        logSwipeEvent(SwipeEventLog.EVENT_OFFSET, left - getPaddingLeft());
+        applyMenuPositions(left, dx);
+        if (mPromotedLayers > 0)
+            promoteRevealedMenus();
+        int events = mStateMachine.onOffsetChanged(left - getPaddingLeft(), mDragDistance);
+        updateRestingStatus(events);
+        notifySwipeListener(events, dx, dy);
+        TraceCompat.endSection();
+    }
+
+    private void applyMenuPositions(int left, int dx) {
+        if (mMenuOverlay != null)
+            mMenuOverlay.onRowOffsetChanged(this, left - getPaddingLeft());
+        if (mMenuActions != null) {
+            computeRowMenuLefts(left - getPaddingLeft(), mActionWidths, mActionWidths.length, mActionLefts);
+            invalidate();
+            return;
+        }
+        // A snapshot is drawn by this view, so it has to redraw whenever the offset changes.
+        if (mSnapshotCache != null)
+            invalidate();
+        if (mRevealStrategy == null && mMode == Mode.LayDown)
+            return;
+        int distanceX = left - getPaddingLeft();
+        computeRowMenuLefts(distanceX, mMenuWidths, mMenuItemViewList.size(), mMenuLefts);
+        for (int i = 0; i < mMenuItemViewList.size(); i++) {
+            layoutMenuAtOffset(i, mMenuLefts[i] - mMenuInitLefts[i]);
+        }
+        if (!isTranslationDragEnabled() && mSnapshotCache == null)
+            invalidate();
+    }
+
+    private void computeRowMenuLefts(int offset, int[] widths, int count, int[] outLefts) {
+        if (mPositionTable != null && mPositionTable.getCount() == count
+                && mPositionTable.lookup(offset, getPaddingLeft() + mContentView.getMeasuredWidth(), outLefts))
+            return;
+        computeMenuLefts(offset, widths, count, outLefts);
+    }
+
+    private void computeMenuLefts(int offset, int[] widths, int count, int[] outLefts) {
+        int anchor = getPaddingLeft() + mContentView.getMeasuredWidth();
+        if (mRevealStrategy != null) {
+            mRevealStrategy.computeMenuLefts(offset, anchor, widths, count, outLefts);
+            return;
+        }
+        switch (mMode) {
+            case LayDown:
+                MenuGeometry.layDown(offset, anchor, widths, count, outLefts);
+                break;
+            case PullOut:
+                MenuGeometry.pullOut(offset, anchor, widths, count, outLefts);
+                break;
+            case PullStack:
+                MenuGeometry.pullStack(offset, anchor, widths, count, outLefts);
+                break;
+        }
+    }
+
+    void setMenuOverlay(SwipeMenuOverlay overlay) {
+        if (mMenuOverlay == overlay)
+            return;
+        mMenuOverlay = overlay;
+        mLayoutDirty = true;
+        if (mContentView != null && mContentView.getMeasuredHeight() > 0)
+            calculateDragDistance();
+    }
+
+    SwipeMenuOverlay getMenuOverlay() {
+        return mMenuOverlay;
+    }
+
+    int getOverlayMenuLayout() {
+        return mPendingMenuLayout;
+    }
+
+    int getContentTop() {
+        return mContentView.getTop();
+    }
+
+    int getContentHeight() {
+        return mContentView.getMeasuredHeight();
+    }
+
+    void computeOverlayMenuLefts(int[] widths, int count, int[] outLefts) {
+        computeMenuLefts(mContentView.getLeft() - getPaddingLeft(), widths, count, outLefts);
+    }
+
+    static SimpleSwipeLayout findIn(View view) {
+        if (view instanceof SimpleSwipeLayout)
+            return (SimpleSwipeLayout) view;
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                SimpleSwipeLayout layout = findIn(group.getChildAt(i));
+                if (layout != null)
+                    return layout;
             }
-            int offset = result * (mMenuItemViewList.size() - i) + unit;
-            remainder -= unit;
-            Rect rect = mViewInitLocationMap.get(view);
-            view.layout(rect.left + offset, rect.top, rect.right + offset, rect.bottom);
         }
-        invalidate();
+        return null;
     }
 
-    private void notifySwipeListener(int left, int top, int dx, int dy) {
-        if (mSwipeListener == null)
+    private void updateRestingStatus(int events) {
+        if ((events & SwipeStateMachine.EVENT_START_OPEN) != 0 && mStateRegistry != null)
+            mStateRegistry.onStartOpen(this);
+        Status status;
+        if ((events & SwipeStateMachine.EVENT_OPEN) != 0)
+            status = Status.Open;
+        else if ((events & SwipeStateMachine.EVENT_CLOSE) != 0)
+            status = Status.Close;
+        else
             return;
-        if (dx > 0)
-            mSwipeListener.onStartClose(this);
-        if (dx < 0)
-            mSwipeListener.onStartOpen(this);
-        mSwipeListener.onUpdate(this, dx, dy);
-        if (getCurrentStatus() == Status.Close)
-            mSwipeListener.onClose(this);
-        if (getCurrentStatus() == Status.Open)
-            mSwipeListener.onOpen(this);
+        if (status == mRestingStatus)
+            return;
+        mRestingStatus = status;
+        if (mStateRegistry != null)
+            mStateRegistry.onStatusChanged(this, status);
     }
 
-    private void processHandRelease(View releasedChild, float xvel) {
-        float minSpeed = mDragHelper.getMinVelocity();
-        float currentX = releasedChild.getX();
-        float distanceX = Math.abs(getPaddingLeft() - currentX);
-        if (distanceX >= mDragDistance / 2 || xvel < -minSpeed) {
-            smoothOpen();
-        } else if (distanceX < mDragDistance / 2 || xvel > minSpeed) {
-            smoothClose();
+    void bindRegistry(SwipeStateRegistry registry, long key) {
+        mStateRegistry = registry;
+        mRegistryKey = key;
+    }
+
+    long getRegistryKey() {
+        return mRegistryKey;
+    }
+
+    SwipeStateRegistry getStateRegistry() {
+        return mStateRegistry;
+    }
+
+    /**
+     * Jump to {@link Status#Open} or {@link Status#Close}, or animate there when smooth is true.
+     * Without animation no listener is notified and no extra layout pass is requested.
+     */
+    public void setStatus(Status status, boolean smooth) {
+        if (status == Status.Middle)
+            throw new IllegalArgumentException("status must be Open or Close");
+        // A row opened from onBindViewHolder is not attached yet, so a SwipeMenuOverlay has not
+        // claimed it. Wait for the first measure to inflate and bind, or it would build a local
+        // menu the overlay then hides.
+        mPrepareMenuOnMeasure = false;
+        if (status == Status.Open) {
+            if (smooth || getWindowToken() != null)
+                prepareMenu();
+            else
+                mPrepareMenuOnMeasure = true;
         }
+        if (smooth) {
+            if (status == Status.Open)
+                smoothOpen();
+            else
+                smoothClose();
+            return;
+        }
+        stopSettling();
+        flushPendingUpdate();
+        mRestingStatus = status;
+        mStateMachine.reset(status == Status.Open);
+        if (mContentView == null || mContentView.getWidth() == 0)
+            return;
+        int dx = getRestingLeft() - mContentView.getLeft();
+        if (dx == 0)
+            return;
+        mContentView.offsetLeftAndRight(dx);
+        applyMenuPositions(mContentView.getLeft(), dx);
+    }
+
+    private int getRestingLeft() {
+        if (mRestingStatus == Status.Open)
+            return getPaddingLeft() - mDragDistance;
+        return getPaddingLeft();
+    }
+
+    void setSwipeController(SwipeItemTouchListener controller) {
+        mSwipeController = controller;
+    }
+
+    boolean canSwipe() {
+        return mContentView != null && (mDragDistance > 0 || mPendingMenuLayout != 0);
+    }
+
+    void stopSettling() {
+        if (!isSettling())
+            return;
+        mSettler.cancel();
+        onSwipeIdle();
+    }
+
+    /**
+     * The status the row is settling towards, or its current status when it is not settling.
+     */
+    Status getTargetStatus() {
+        if (isSettling())
+            return mSettler.getTargetLeft() == getPaddingLeft() ? Status.Close : Status.Open;
+        return getCurrentStatus();
+    }
+
+    /**
+     * @return true while a finger drives the content view, through this row or the list controller
+     */
+    boolean isDragging() {
+        return mControllerDragging
+                || mDragHelper != null && mDragHelper.getViewDragState() == ViewDragHelper.STATE_DRAGGING;
+    }
+
+    private boolean isSettling() {
+        return mSettler != null && mSettler.isRunning();
+    }
+
+    void beginControllerDrag() {
+        logSwipeEvent(SwipeEventLog.EVENT_CAPTURE, 0);
+        prepareMenu();
+        mControllerDragging = true;
+        onSwipeActive(SwipeFrameMetrics.PHASE_DRAG);
+    }
+
+    void dragContentBy(int dx) {
+        int oldLeft = mContentView.getLeft();
+        int newLeft = Math.min(getPaddingLeft(), Math.max(oldLeft + dx, getPaddingLeft() - mDragDistance));
+        if (newLeft == oldLeft)
+            return;
+        mContentView.offsetLeftAndRight(newLeft - oldLeft);
+        onContentPositionChanged(newLeft, mContentView.getTop(), newLeft - oldLeft, 0);
+    }
+
+    void releaseContent(float xvel, float yvel) {
+        mControllerDragging = false;
+        onContentReleased(xvel, yvel);
+        if (!isSettling())
+            onSwipeIdle();
+    }
+
+    private void layoutMenuAtOffset(int index, int offset) {
+        View view = mMenuItemViewList.get(index);
+        if (isTranslationDragEnabled()) {
+            ViewCompat.setTranslationX(view, offset);
+            return;
+        }
+        view.layout(
+                mMenuInitLefts[index] + offset,
+                mMenuInitTops[index],
+                mMenuInitRights[index] + offset,
+                mMenuInitBottoms[index]
+        );
+    }
+
+    private void notifySwipeListener(int events, int dx, int dy) {
+        if (mSwipeListener != null)
+            mDispatcher.dispatch(events, dx, dy);
+    }
+
+    private void flushPendingUpdate() {
+        mDispatcher.flush();
+    }
+
+    private final Runnable mUpdateRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mDispatcher.flush();
+        }
+    };
+
+    private final SwipeDispatcher mDispatcher = new SwipeDispatcher(new SwipeDispatcher.Callback() {
+        @Override
+        public void onStartOpen() {
+            if (mSwipeListener != null)
+                mSwipeListener.onStartOpen(SimpleSwipeLayout.this);
+        }
+
+        @Override
+        public void onOpen() {
+            if (mSwipeListener != null)
+                mSwipeListener.onOpen(SimpleSwipeLayout.this);
+        }
+
+        @Override
+        public void onStartClose() {
+            if (mSwipeListener != null)
+                mSwipeListener.onStartClose(SimpleSwipeLayout.this);
+        }
+
+        @Override
+        public void onClose() {
+            if (mSwipeListener != null)
+                mSwipeListener.onClose(SimpleSwipeLayout.this);
+        }
+
+        @Override
+        public void onUpdate(int dx, int dy) {
+            if (mSwipeListener != null)
+                mSwipeListener.onUpdate(SimpleSwipeLayout.this, dx, dy);
+        }
+
+        @Override
+        public void scheduleFlush() {
+            ViewCompat.postOnAnimation(SimpleSwipeLayout.this, mUpdateRunnable);
+        }
+
+        @Override
+        public void cancelFlush() {
+            removeCallbacks(mUpdateRunnable);
+        }
+    });
+
+    private void processHandRelease(View releasedChild, float xvel) {
+        if (Math.abs(xvel) < mMinVelocity)
+            xvel = 0;
+        float offset = releasedChild.getLeft() - getPaddingLeft();
+        float projected = CriticallyDampedSpring.projectFling(offset, xvel, FLING_PROJECTION_SECONDS);
+        if (projected <= -mDragDistance / 2f)
+            settleTo(getPaddingLeft() - mDragDistance, xvel);
+        else
+            settleTo(getPaddingLeft(), xvel);
     }
 
     public void smoothClose() {
-        mDragHelper.smoothSlideViewTo(mContentView, getPaddingLeft(), getPaddingTop());
-        invalidate();
+        settleTo(getPaddingLeft(), 0);
     }
 
     public void smoothOpen() {
-        mDragHelper.smoothSlideViewTo(mContentView, getPaddingLeft() - mDragDistance, getPaddingTop());
-        invalidate();
+        prepareMenu();
+        settleTo(getPaddingLeft() - mDragDistance, 0);
+    }
+
+    /**
+     * Spring the content view to targetLeft, keeping the velocity it was released with.
+     * A touch stops it where it is; a new target takes over its current position and velocity.
+     */
+    private void settleTo(int targetLeft, float velocity) {
+        if (mContentView == null)
+            return;
+        int left = mContentView.getLeft();
+        if (left == targetLeft && velocity == 0 && !isSettling())
+            return;
+        if (mSettler == null)
+            mSettler = new SwipeSettler(this);
+        boolean wasSettling = mSettler.isRunning();
+        mSettler.start(left, targetLeft, velocity);
+        if (!wasSettling)
+            onSwipeActive(SwipeFrameMetrics.PHASE_SETTLE);
+    }
+
+    void onSettleFrame(int left, boolean atRest) {
+        TraceCompat.beginSection(TRACE_SETTLE);
+        left = Math.max(getPaddingLeft() - mDragDistance, Math.min(left, getPaddingLeft()));
+        int dx = left - mContentView.getLeft();
+        if (dx != 0) {
+            mContentView.offsetLeftAndRight(dx);
+            onContentPositionChanged(left, mContentView.getTop(), dx, 0);
+        }
+        if (atRest) {
+            logSwipeEvent(SwipeEventLog.EVENT_SETTLE_END, 0);
+            onSwipeIdle();
+        }
+        TraceCompat.endSection();
     }
 
     public SimpleSwipeLayout(Context context) {
@@ -181,49 +1022,359 @@ public class SimpleSwipeLayout extends FrameLayout {
 
         TypedArray typedArray = context.obtainStyledAttributes(attrs, R.styleable.SwipeLayout);
         mMode = Mode.values()[typedArray.getInt(R.styleable.SwipeLayout_mode, Mode.PullStack.ordinal())];
+        boolean translationDrag = typedArray.getBoolean(R.styleable.SwipeLayout_translation_drag, false);
+        int translationDragModes = typedArray.getInt(R.styleable.SwipeLayout_translation_drag_modes, 0);
+        for (Mode mode : Mode.values()) {
+            mTranslationDragModes[mode.ordinal()] = translationDrag
+                    || (translationDragModes & 1 << mode.ordinal()) != 0;
+        }
+        float maxDragAngle = typedArray.getFloat(R.styleable.SwipeLayout_max_drag_angle,
+                GestureClassifier.DEFAULT_MAX_DRAG_ANGLE);
+        if (typedArray.getBoolean(R.styleable.SwipeLayout_hardware_layers, false))
+            mLayerBudget = HardwareLayerBudget.getDefault();
+        mPendingMenuLayout = typedArray.getResourceId(R.styleable.SwipeLayout_menu_layout, 0);
         typedArray.recycle();
 
         init();
+        mGestureClassifier.setMaxDragAngle(maxDragAngle);
     }
 
     private void init() {
-        mDragHelper = ViewDragHelper.create(this, mDragHelperCallback);
-        mValidDistance = mDragHelper.getTouchSlop();
-        mViewInitLocationMap = new HashMap<>();
+        ViewConfiguration configuration = ViewConfiguration.get(getContext());
+        mGestureClassifier = new GestureClassifier(configuration.getScaledTouchSlop());
+        mMinVelocity = configuration.getScaledMinimumFlingVelocity();
+    }
+
+    private ViewDragHelper getDragHelper() {
+        if (mDragHelper == null)
+            mDragHelper = ViewDragHelper.create(this, mDragHelperCallback);
+        return mDragHelper;
     }
 
     @Override
-    public void computeScroll() {
-        super.computeScroll();
-        if (mDragHelper.continueSettling(true)) {
-            ViewCompat.postInvalidateOnAnimation(this);
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (isSettling()) {
+            // Land where the spring was heading so a cached row that comes back without a
+            // rebind is not left half open.
+            int targetLeft = mSettler.getTargetLeft();
+            mSettler.cancel();
+            onSettleFrame(targetLeft, true);
+            return;
         }
+        onSwipeIdle();
     }
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        mLastWidthMeasureSpec = widthMeasureSpec;
+        mLastHeightMeasureSpec = heightMeasureSpec;
+        if (mPrepareMenuOnMeasure && getWindowToken() != null) {
+            mPrepareMenuOnMeasure = false;
+            prepareMenu();
+            mLayoutDirty = true;
+        }
+        boolean useCache = useMeasureCache();
+        if (useCache)
+            mMeasureEntry = mMeasureCache.get(getMenuSignature(), widthMeasureSpec, heightMeasureSpec,
+                    mMenuItemViewList.size());
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
-        calculateDragDistance();
+        if (mMeasureEntry != null && (getMeasuredWidth() != mMeasureEntry.measuredWidth
+                || getMeasuredHeight() != mMeasureEntry.measuredHeight)) {
+            // This row's content sized it differently, so the cached menu sizes do not apply.
+            mMeasureEntry = null;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
+        if (useCache && mMeasureEntry == null)
+            mMeasureCache.put(getMenuSignature(), widthMeasureSpec, heightMeasureSpec,
+                    getMeasuredWidth(), getMeasuredHeight(), mMenuItemViewList);
+        mMeasureEntry = null;
+        if (mPendingMenuLayout != 0) {
+            calculateDragDistance();
+        } else if (menuWidthsChanged()) {
+            calculateDragDistance();
+            mLayoutDirty = true;
+            mSnapshotDirty = true;
+        }
+    }
+
+    /**
+     * A row binder may give each row different labels, so the layout resource alone does not
+     * identify its menu; such rows only share sizes under an explicit signature.
+     */
+    private boolean useMeasureCache() {
+        return mMeasureCache != null && !mMenuItemViewList.isEmpty() && getMenuSignature() != 0
+                && (mMenuBinder == null || mMenuSignature != 0);
+    }
+
+    /**
+     * FrameLayout still sizes the row from all of its children; a menu whose size is cached for
+     * these specs is only measured again if its size differs or it asked for layout.
+     */
+    @Override
+    protected void measureChildWithMargins(View child, int parentWidthMeasureSpec, int widthUsed,
+                                           int parentHeightMeasureSpec, int heightUsed) {
+        int index = mMeasureEntry == null ? -1 : mMenuItemViewList.indexOf(child);
+        if (index < 0) {
+            super.measureChildWithMargins(child, parentWidthMeasureSpec, widthUsed,
+                    parentHeightMeasureSpec, heightUsed);
+            return;
+        }
+        int width = mMeasureEntry.widths[index];
+        int height = mMeasureEntry.heights[index];
+        if (child.isLayoutRequested() || child.getMeasuredWidth() != width || child.getMeasuredHeight() != height)
+            child.measure(MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY),
+                    MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY));
+    }
+
+    private boolean menuWidthsChanged() {
+        for (int i = 0; i < mMenuItemViewList.size(); i++) {
+            if (mMenuItemViewList.get(i).getMeasuredWidth() != mMenuWidths[i])
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void requestLayout() {
+        if (mWorkTracker != null)
+            mWorkTracker.countRequestLayout();
+        super.requestLayout();
+    }
+
+    @Override
+    public void invalidate() {
+        if (mWorkTracker != null)
+            mWorkTracker.countInvalidate();
+        super.invalidate();
+    }
+
+    @Override
+    public void invalidate(Rect dirty) {
+        if (mWorkTracker != null)
+            mWorkTracker.countInvalidate();
+        super.invalidate(dirty);
+    }
+
+    @Override
+    public void invalidate(int l, int t, int r, int b) {
+        if (mWorkTracker != null)
+            mWorkTracker.countInvalidate();
+        super.invalidate(l, t, r, b);
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    @Override
+    public void postInvalidateOnAnimation() {
+        if (mWorkTracker != null)
+            mWorkTracker.countInvalidate();
+        super.postInvalidateOnAnimation();
+    }
+
+    /**
+     * Children invalidating themselves pass through here, before API 26 at least.
+     */
+    @Override
+    public ViewParent invalidateChildInParent(int[] location, Rect dirty) {
+        if (mWorkTracker != null)
+            mWorkTracker.countInvalidate();
+        return super.invalidateChildInParent(location, dirty);
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        if (mMenuActions != null && mContentView != null && mContentView.getLeft() < getPaddingLeft())
+            drawMenuActions(canvas);
+        mDrawingSnapshot = mSnapshotCache != null && mContentView != null
+                && mContentView.getLeft() < getPaddingLeft() && isSwipeActive() && drawMenuSnapshot(canvas);
+        super.dispatchDraw(canvas);
+    }
+
+    /**
+     * Menus are only visible in the strip the content view has uncovered, so skip the ones
+     * outside it or hidden behind an opaque menu drawn later, and clip the rest to the strip.
+     */
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        if (mDrawingSnapshot && child != mContentView)
+            return false;
+        if (child == mContentView || mContentView == null || mMenuItemViewList == null
+                || mMenuItemViewList.isEmpty())
+            return super.drawChild(canvas, child, drawingTime);
+        int stripLeft = mContentView.getRight();
+        int stripRight = getWidth();
+        int childLeft = Math.round(child.getLeft() + ViewCompat.getTranslationX(child));
+        int childRight = childLeft + child.getWidth();
+        int left = Math.max(stripLeft, childLeft);
+        int right = Math.min(stripRight, childRight);
+        if (left >= right || isCoveredByLaterMenu(child, left, right))
+            return false;
+        if (left == childLeft && right == childRight)
+            return super.drawChild(canvas, child, drawingTime);
+        int saveCount = canvas.save();
+        canvas.clipRect(left, child.getTop(), right, child.getBottom());
+        boolean more = super.drawChild(canvas, child, drawingTime);
+        canvas.restoreToCount(saveCount);
+        return more;
+    }
+
+    private boolean drawMenuSnapshot(Canvas canvas) {
+        if (mMenuOverlay != null || mMenuActions != null || mMenuItemViewList.isEmpty())
+            return false;
+        int width = 0;
+        int height = 0;
+        for (int i = 0; i < mMenuItemViewList.size(); i++) {
+            View menu = mMenuItemViewList.get(i);
+            width += menu.getWidth();
+            height = Math.max(height, menu.getHeight());
+        }
+        Bitmap snapshot = mSnapshotDirty ? null : mSnapshotCache.get(mSnapshotKey);
+        if (snapshot == null || snapshot.getWidth() != width || snapshot.getHeight() != height) {
+            snapshot = mSnapshotCache.capture(mSnapshotKey, mMenuItemViewList, width, height);
+            if (snapshot == null)
+                return false;
+            mSnapshotDirty = false;
+        }
+        if (mSnapshotSrc == null) {
+            mSnapshotSrc = new Rect();
+            mSnapshotDst = new Rect();
+        }
+        int saveCount = canvas.save();
+        canvas.clipRect(mContentView.getRight(), 0, getWidth(), getHeight());
+        int x = 0;
+        for (int i = 0; i < mMenuItemViewList.size(); i++) {
+            View menu = mMenuItemViewList.get(i);
+            int menuWidth = menu.getWidth();
+            if (menu.getVisibility() == VISIBLE) {
+                int left = Math.round(menu.getLeft() + ViewCompat.getTranslationX(menu));
+                mSnapshotSrc.set(x, 0, x + menuWidth, menu.getHeight());
+                mSnapshotDst.set(left, menu.getTop(), left + menuWidth, menu.getBottom());
+                canvas.drawBitmap(snapshot, mSnapshotSrc, mSnapshotDst, null);
+            }
+            x += menuWidth;
+        }
+        canvas.restoreToCount(saveCount);
+        return true;
+    }
+
+    private boolean isMenuLayoutRequested() {
+        for (int i = 0; mMenuItemViewList != null && i < mMenuItemViewList.size(); i++) {
+            if (mMenuItemViewList.get(i).isLayoutRequested())
+                return true;
+        }
+        return false;
+    }
+
+    private void drawMenuActions(Canvas canvas) {
+        int top = mContentView.getTop();
+        int bottom = mContentView.getBottom();
+        int saveCount = canvas.save();
+        canvas.clipRect(mContentView.getRight(), top, getWidth(), bottom);
+        Paint.FontMetrics fontMetrics = mActionFontMetrics;
+        mActionPaint.getFontMetrics(fontMetrics);
+        float textHeight = fontMetrics.descent - fontMetrics.ascent;
+        for (int i = 0; i < mMenuActions.length; i++) {
+            MenuAction action = mMenuActions[i];
+            int left = mActionLefts[i];
+            int right = left + mActionWidths[i];
+            Drawable background = action.getBackground();
+            if (background != null) {
+                background.setBounds(left, top, right, bottom);
+                background.draw(canvas);
+            }
+            Drawable icon = action.getIcon();
+            CharSequence label = action.getLabel();
+            int iconHeight = icon == null ? 0 : icon.getIntrinsicHeight();
+            float labelHeight = label == null ? 0 : textHeight;
+            int centerX = (left + right) / 2;
+            float y = (top + bottom - iconHeight - labelHeight) / 2f;
+            if (icon != null) {
+                int iconWidth = icon.getIntrinsicWidth();
+                icon.setBounds(centerX - iconWidth / 2, (int) y, centerX - iconWidth / 2 + iconWidth,
+                        (int) y + iconHeight);
+                icon.draw(canvas);
+                y += iconHeight;
+            }
+            if (label != null)
+                canvas.drawText(label, 0, label.length(), centerX, y - fontMetrics.ascent, mActionPaint);
+        }
+        canvas.restoreToCount(saveCount);
+    }
+
+    private int findMenuActionUnder(float x, float y) {
+        if (x < mContentView.getRight() || y < mContentView.getTop() || y >= mContentView.getBottom())
+            return -1;
+        for (int i = mMenuActions.length - 1; i >= 0; i--) {
+            if (x >= mActionLefts[i] && x < mActionLefts[i] + mActionWidths[i])
+                return i;
+        }
+        return -1;
+    }
+
+    private boolean isCoveredByLaterMenu(View child, int left, int right) {
+        for (int i = indexOfChild(child) + 1; i < getChildCount(); i++) {
+            View cover = getChildAt(i);
+            if (cover == mContentView || cover.getVisibility() != VISIBLE || !cover.isOpaque()
+                    || cover.getTop() > child.getTop() || cover.getBottom() < child.getBottom())
+                continue;
+            int coverLeft = Math.round(cover.getLeft() + ViewCompat.getTranslationX(cover));
+            if (coverLeft <= left && coverLeft + cover.getWidth() >= right)
+                return true;
+        }
+        return false;
     }
 
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        TraceCompat.beginSection(TRACE_LAYOUT);
+        try {
+            layoutChildren(changed);
+        } finally {
+            TraceCompat.endSection();
+        }
+    }
+
+    private void layoutChildren(boolean changed) {
+        if (mWorkTracker != null)
+            mWorkTracker.countLayout();
+        if (mContentView == null)
+            return;
+        if (!changed && !mLayoutDirty
+                && mContentView.getWidth() == mContentView.getMeasuredWidth()
+                && mContentView.getHeight() == mContentView.getMeasuredHeight()) {
+            relayoutRequestedChildren();
+            return;
+        }
+        mLayoutDirty = false;
+
+        int offset = getRestingLeft() - getPaddingLeft();
+        if (isSwipeActive())
+            offset = Math.min(0, Math.max(mContentView.getLeft() - getPaddingLeft(), -mDragDistance));
         layoutContentView();
+        layoutMenus();
 
-        mViewInitLocationMap.clear();
-        switch (mMode) {
-            case LayDown:
-                layoutLayDown();
-                break;
-            case PullStack:
-                layoutPullStack();
-                break;
-            case PullOut:
-                layoutPullOut();
-                break;
+        if (offset != 0) {
+            mContentView.offsetLeftAndRight(offset);
+            applyMenuPositions(mContentView.getLeft(), offset);
+        }
+    }
+
+    /**
+     * Sizes did not change, so only lay out the children that asked for it, where they are.
+     */
+    private void relayoutRequestedChildren() {
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (child.isLayoutRequested())
+                child.layout(child.getLeft(), child.getTop(), child.getRight(), child.getBottom());
         }
     }
 
+    private boolean isSwipeActive() {
+        return mControllerDragging || isSettling()
+                || mDragHelper != null && mDragHelper.getViewDragState() != ViewDragHelper.STATE_IDLE;
+    }
+
     private void layoutContentView() {
         int left = getPaddingLeft();
         int top = getPaddingTop();
@@ -233,128 +1384,189 @@ public class SimpleSwipeLayout extends FrameLayout {
                 left + mContentView.getMeasuredWidth(),
                 top + mContentView.getMeasuredHeight()
         );
-        mContentView.bringToFront();
+        if (getChildAt(getChildCount() - 1) != mContentView)
+            mContentView.bringToFront();
     }
 
-    private void layoutPullOut() {
-        View lastView = mContentView;
-        for (View view : mMenuItemViewList) {
+    private void layoutMenus() {
+        rebuildPositionTable();
+        computeMenuLefts(0, mMenuWidths, mMenuItemViewList.size(), mMenuInitLefts);
+        int top = mContentView.getTop();
+        for (int i = 0; i < mMenuItemViewList.size(); i++) {
+            View view = mMenuItemViewList.get(i);
+            int left = mMenuInitLefts[i];
             view.layout(
-                    lastView.getRight(),
-                    lastView.getTop(),
-                    lastView.getRight() + view.getMeasuredWidth(),
-                    lastView.getTop() + view.getMeasuredHeight()
+                    left,
+                    top,
+                    left + view.getMeasuredWidth(),
+                    top + view.getMeasuredHeight()
             );
-            calenderRect(view);
-            lastView = view;
-        }
-    }
-
-    private void layoutLayDown() {
-        View lastView = mContentView;
-        for (int i = mMenuItemViewList.size() - 1; i >= 0; i--) {
-            View view = mMenuItemViewList.get(i);
-            if (lastView == mContentView)
-                view.layout(
-                        lastView.getRight() - view.getMeasuredWidth(),
-                        lastView.getTop(),
-                        lastView.getRight(),
-                        lastView.getTop() + view.getMeasuredHeight()
-                );
-            else
-                view.layout(
-                        lastView.getLeft() - view.getMeasuredWidth(),
-                        lastView.getTop(),
-                        lastView.getLeft(),
-                        lastView.getTop() + view.getMeasuredHeight()
-                );
-            calenderRect(view);
-            lastView = view;
+            saveInitLocation(i, view);
         }
     }
 
-    private void calenderRect(View view) {
-        Rect rect = new Rect();
-        view.getHitRect(rect);
-        mViewInitLocationMap.put(view, rect);
-    }
-
-    private void layoutPullStack() {
-        for (View view : mMenuItemViewList) {
-            view.layout(
-                    mContentView.getRight(),
-                    mContentView.getTop(),
-                    mContentView.getRight() + view.getMeasuredWidth(),
-                    mContentView.getTop() + view.getMeasuredHeight()
-            );
-            calenderRect(view);
-        }
+    private void saveInitLocation(int index, View view) {
+        ViewCompat.setTranslationX(view, 0);
+        mMenuInitLefts[index] = view.getLeft();
+        mMenuInitTops[index] = view.getTop();
+        mMenuInitRights[index] = view.getRight();
+        mMenuInitBottoms[index] = view.getBottom();
     }
 
     private void calculateDragDistance() {
+        if (mMenuActions != null) {
+            mDragDistance = 0;
+            for (int i = 0; i < mActionWidths.length; i++)
+                mDragDistance += mActionWidths[i];
+            return;
+        }
+        if (mPendingMenuLayout != 0 && mMenuOverlay != null) {
+            mDragDistance = mMenuOverlay.getDragDistance(mPendingMenuLayout, mContentView.getMeasuredHeight());
+            return;
+        }
+        if (mPendingMenuLayout != 0) {
+            // Not inflated yet: a row of the same list that measured this menu knows its size.
+            MenuMeasureCache.Entry entry = mMeasureCache == null ? null
+                    : mMeasureCache.get(getMenuSignature(), mLastWidthMeasureSpec, mLastHeightMeasureSpec);
+            mDragDistance = entry != null ? entry.dragDistance : 0;
+            return;
+        }
         mDragDistance = 0;
-        for (View view : mMenuItemViewList)
-            mDragDistance += view.getMeasuredWidth();
+        for (int i = 0; i < mMenuItemViewList.size(); i++) {
+            mMenuWidths[i] = mMenuItemViewList.get(i).getMeasuredWidth();
+            mDragDistance += mMenuWidths[i];
+        }
     }
 
-    float sX;
-    float sY;
-
     @Override
     public boolean onInterceptTouchEvent(MotionEvent event) {
+        if (mSwipeController != null)
+            return false;
+        TraceCompat.beginSection(TRACE_INTERCEPT);
+        try {
+            return interceptTouchEvent(event);
+        } finally {
+            TraceCompat.endSection();
+        }
+    }
+
+    private boolean interceptTouchEvent(MotionEvent event) {
         int action = MotionEventCompat.getActionMasked(event);
         switch (action) {
             case MotionEvent.ACTION_DOWN:
-                try {
-                    mDragHelper.processTouchEvent(event);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-                sX = event.getX();
-                sY = event.getY();
+                logSwipeEvent(SwipeEventLog.EVENT_DOWN, 0);
+                stopSettling();
+                processDragEvent(event);
+                GestureEvents.classify(mGestureClassifier, event);
                 return false;
-            case MotionEvent.ACTION_MOVE:
-                float dx = event.getX() - sX;
-                if (Math.abs(dx) > mValidDistance && checkIsDrag(event)) {
-                    return true;
-                }
+            case MotionEventCompat.ACTION_POINTER_UP:
+                GestureEvents.classify(mGestureClassifier, event);
                 return false;
+            case MotionEvent.ACTION_MOVE:
+                int direction = mGestureClassifier.getDirection();
+                boolean intercept = checkIsDrag(event);
+                if (intercept)
+                    logSwipeEvent(SwipeEventLog.EVENT_INTERCEPT, 1);
+                else if (direction == GestureClassifier.DIRECTION_UNDECIDED
+                        && mGestureClassifier.getDirection() == GestureClassifier.DIRECTION_VERTICAL)
+                    logSwipeEvent(SwipeEventLog.EVENT_INTERCEPT, 0);
+                return intercept;
         }
         return false;
     }
 
+    private void processDragEvent(MotionEvent event) {
+        TraceCompat.beginSection(TRACE_TOUCH);
+        try {
+            getDragHelper().processTouchEvent(event);
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            TraceCompat.endSection();
+        }
+    }
+
+    /**
+     * ViewDragHelper already reports STATE_DRAGGING on the ACTION_DOWN capture, so the swipe
+     * only counts as active, with its layers and trackers, once the gesture locks horizontal.
+     */
     private boolean checkIsDrag(MotionEvent ev) {
-        float dX = ev.getX() - sX;
-        float dY = ev.getY() - sY;
-        float angle = Math.abs(dY / dX);
-        angle = (float) Math.toDegrees(Math.atan(angle));
-        if (angle < 70)
-            return true;
-        return false;
+        if (GestureEvents.classify(mGestureClassifier, ev) != GestureClassifier.DIRECTION_HORIZONTAL)
+            return false;
+        prepareMenu();
+        if (!mSwipeActive)
+            onSwipeActive(SwipeFrameMetrics.PHASE_DRAG);
+        return true;
     }
 
     @Override
     public boolean onTouchEvent(MotionEvent event) {
+        if (mMenuOverlay != null && onOverlayTouchEvent(event))
+            return true;
+        if (mMenuActions != null && onMenuActionTouchEvent(event))
+            return true;
+        if (mSwipeController != null)
+            return super.onTouchEvent(event);
         int action = MotionEventCompat.getActionMasked(event);
         switch (action) {
+            case MotionEventCompat.ACTION_POINTER_UP:
+                GestureEvents.classify(mGestureClassifier, event);
+            case MotionEventCompat.ACTION_POINTER_DOWN:
+                processDragEvent(event);
+                break;
             case MotionEvent.ACTION_MOVE:
-                float dx = event.getX() - sX;
-                if (Math.abs(dx) > mValidDistance && checkIsDrag(event)) {
+                if (checkIsDrag(event)) {
                     getParent().requestDisallowInterceptTouchEvent(true);
                 }
             case MotionEvent.ACTION_UP:
             case MotionEvent.ACTION_CANCEL:
-                try {
-                    mDragHelper.processTouchEvent(event);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
+                processDragEvent(event);
         }
         return true;
     }
 
+    private boolean onOverlayTouchEvent(MotionEvent event) {
+        switch (MotionEventCompat.getActionMasked(event)) {
+            case MotionEvent.ACTION_DOWN:
+                return mSwipeController != null && getCurrentStatus() != Status.Close;
+            case MotionEvent.ACTION_UP:
+                if (mSwipeController == null
+                        && mGestureClassifier.getDirection() != GestureClassifier.DIRECTION_UNDECIDED)
+                    return false;
+                View menu = mMenuOverlay.findMenuViewUnder(this, event.getX(), event.getY());
+                if (menu == null)
+                    return false;
+                if (mSwipeController == null) {
+                    processDragEvent(event);
+                }
+                dispatchMenuClick(menu);
+                return true;
+        }
+        return false;
+    }
+
+    private boolean onMenuActionTouchEvent(MotionEvent event) {
+        switch (MotionEventCompat.getActionMasked(event)) {
+            case MotionEvent.ACTION_DOWN:
+                return mSwipeController != null && getCurrentStatus() != Status.Close;
+            case MotionEvent.ACTION_UP:
+                if (mSwipeController == null
+                        && mGestureClassifier.getDirection() != GestureClassifier.DIRECTION_UNDECIDED)
+                    return false;
+                int index = findMenuActionUnder(event.getX(), event.getY());
+                if (index < 0)
+                    return false;
+                if (mSwipeController == null) {
+                    processDragEvent(event);
+                }
+                dispatchMenuActionClick(mMenuActions[index]);
+                return true;
+        }
+        return false;
+    }
+
     private boolean isInContentView(MotionEvent ev) {
-        Rect rect = new Rect();
+        Rect rect = mTempRect;
         mContentView.getHitRect(rect);
         if (rect.contains((int) ev.getX(), (int) ev.getY()))
             return true;
@@ -364,37 +1576,101 @@ public class SimpleSwipeLayout extends FrameLayout {
     @Override
     protected void onFinishInflate() {
         super.onFinishInflate();
-        initMenuItemViews();
         mContentView = getContentView();
+        initMenuItemViews();
+        setupContentClick();
         setupMenuClick();
     }
 
-    private void initMenuItemViews() {
-        if (getChildCount() <= 1)
+    /**
+     * Inflate the menu declared with app:menu_layout if that has not happened yet.
+     * Called on the first horizontal drag and before opening programmatically.
+     */
+    public void ensureMenuInflated() {
+        if (mPendingMenuLayout == 0 || mMenuOverlay != null)
+            return;
+        int menuLayout = mPendingMenuLayout;
+        mPendingMenuLayout = 0;
+        mMenuLayout = menuLayout;
+        FrameLayout holder = new FrameLayout(getContext());
+        LayoutInflater.from(getContext()).inflate(menuLayout, holder, true);
+        int index = 0;
+        while (holder.getChildCount() > 0) {
+            View child = holder.getChildAt(0);
+            holder.removeViewAt(0);
+            addViewInLayout(child, index++, child.getLayoutParams(), true);
+        }
+        initMenuItemViews();
+        setupMenuClick();
+        mSnapshotDirty = true;
+        if (mContentView.getWidth() == 0) {
+            if (!isLayoutRequested())
+                requestLayout();
             return;
+        }
+        measureMenus();
+        calculateDragDistance();
+        layoutMenus();
+        applyMenuPositions(mContentView.getLeft(), 0);
+    }
+
+    private void measureMenus() {
+        int verticalPadding = getPaddingTop() + getPaddingBottom();
+        for (int i = 0; i < mMenuItemViewList.size(); i++) {
+            View view = mMenuItemViewList.get(i);
+            LayoutParams lp = (LayoutParams) view.getLayoutParams();
+            int widthSpec = getChildMeasureSpec(mLastWidthMeasureSpec,
+                    getPaddingLeft() + getPaddingRight() + lp.leftMargin + lp.rightMargin, lp.width);
+            int heightSpec;
+            if (lp.height == LayoutParams.MATCH_PARENT)
+                heightSpec = MeasureSpec.makeMeasureSpec(getMeasuredHeight() - verticalPadding
+                        - lp.topMargin - lp.bottomMargin, MeasureSpec.EXACTLY);
+            else
+                heightSpec = getChildMeasureSpec(mLastHeightMeasureSpec,
+                        verticalPadding + lp.topMargin + lp.bottomMargin, lp.height);
+            view.measure(widthSpec, heightSpec);
+        }
+    }
+
+    private void initMenuItemViews() {
         mMenuItemViewList = new ArrayList<>();
-        for (int i = 1; i < getChildCount(); i++) {
-            mMenuItemViewList.add(getChildAt(i));
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (child != mContentView)
+                mMenuItemViewList.add(child);
         }
+        int size = mMenuItemViewList.size();
+        mMenuWidths = new int[size];
+        mMenuLefts = new int[size];
+        mMenuInitLefts = new int[size];
+        mMenuInitTops = new int[size];
+        mMenuInitRights = new int[size];
+        mMenuInitBottoms = new int[size];
+    }
+
+    private void setupContentClick() {
+        mContentView.setOnClickListener(sClickDispatcher);
     }
 
     private void setupMenuClick() {
-        mContentView.setOnClickListener(new OnClickListener() {
-            @Override
-            public void onClick(View v) {
-                if (mOnMenuClickListener != null)
-                    mOnMenuClickListener.onMenuClick(v);
-            }
-        });
-        for (View view : mMenuItemViewList) {
-            view.setOnClickListener(new OnClickListener() {
-                @Override
-                public void onClick(View v) {
-                    if (mOnMenuClickListener != null)
-                        mOnMenuClickListener.onMenuClick(v);
-                }
-            });
-        }
+        for (int i = 0; i < mMenuItemViewList.size(); i++)
+            mMenuItemViewList.get(i).setOnClickListener(sClickDispatcher);
+    }
+
+    private void dispatchMenuClick(View view) {
+        if (mOnMenuClickListener != null)
+            mOnMenuClickListener.onMenuClick(view);
+        if (mStateRegistry != null)
+            mStateRegistry.dispatchMenuClick(this, view.getId());
+    }
+
+    private void dispatchMenuActionClick(MenuAction action) {
+        if (mOnMenuActionClickListener != null)
+            mOnMenuActionClickListener.onMenuActionClick(this, action);
+        else if (mOnMenuClickListener != null)
+            mOnMenuClickListener.onMenuClick(this);
+        if (mStateRegistry != null)
+            mStateRegistry.dispatchMenuClick(this, action.getId());
     }
 
     private View getContentView() {
@@ -403,7 +1679,7 @@ public class SimpleSwipeLayout extends FrameLayout {
         return getChildAt(0);
     }
 
-    private Status getCurrentStatus() {
+    public Status getCurrentStatus() {
         if (mContentView == null) {
             return Status.Close;
         }
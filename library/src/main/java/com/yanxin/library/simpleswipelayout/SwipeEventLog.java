@@ -0,0 +1,114 @@
+package com.yanxin.library.simpleswipelayout;
+
+import android.os.SystemClock;
+
+import java.io.PrintWriter;
+
+/**
+ * Fixed-size ring buffer of timestamped swipe events, shared by the rows it is set on.
+ * All storage is allocated up front, so recording never allocates; once full, the oldest
+ * events are overwritten. Written and read on the UI thread.
+ */
+public class SwipeEventLog {
+
+    public static final int EVENT_DOWN = 0;
+    public static final int EVENT_INTERCEPT = 1;
+    public static final int EVENT_CAPTURE = 2;
+    public static final int EVENT_OFFSET = 3;
+    public static final int EVENT_RELEASE = 4;
+    public static final int EVENT_SETTLE_END = 5;
+
+    private static final String[] EVENT_NAMES = {
+            "down", "intercept", "capture", "offset", "release", "settle_end"
+    };
+
+    private final long[] mTimes;
+    private final int[] mTypes;
+    private final int[] mRows;
+    private final float[] mValues;
+    private int mNext;
+    private int mSize;
+
+    public SwipeEventLog(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive");
+        mTimes = new long[capacity];
+        mTypes = new int[capacity];
+        mRows = new int[capacity];
+        mValues = new float[capacity];
+    }
+
+    /**
+     * @param row   identifies the row, e.g. its identity hash code
+     * @param value offset in px for {@link #EVENT_OFFSET}, x velocity for {@link #EVENT_RELEASE},
+     *              1 for {@link #EVENT_INTERCEPT} when the row takes the gesture and 0 when it
+     *              locks vertical and is left to the list, 0 otherwise
+     */
+    public void record(int type, int row, float value) {
+        int i = mNext;
+        mTimes[i] = SystemClock.uptimeMillis();
+        mTypes[i] = type;
+        mRows[i] = row;
+        mValues[i] = value;
+        mNext = i + 1 == mTimes.length ? 0 : i + 1;
+        if (mSize < mTimes.length)
+            mSize++;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public int getCapacity() {
+        return mTimes.length;
+    }
+
+    private int indexOf(int position) {
+        if (position < 0 || position >= mSize)
+            throw new IndexOutOfBoundsException("position " + position + ", size " + mSize);
+        int index = mNext - mSize + position;
+        return index < 0 ? index + mTimes.length : index;
+    }
+
+    /**
+     * @param position 0 for the oldest event still in the buffer
+     */
+    public long getTime(int position) {
+        return mTimes[indexOf(position)];
+    }
+
+    public int getType(int position) {
+        return mTypes[indexOf(position)];
+    }
+
+    public int getRow(int position) {
+        return mRows[indexOf(position)];
+    }
+
+    public float getValue(int position) {
+        return mValues[indexOf(position)];
+    }
+
+    public void clear() {
+        mNext = 0;
+        mSize = 0;
+    }
+
+    /**
+     * Print every event, oldest first, one per line: uptime ms, row, event name, value.
+     */
+    public void dump(PrintWriter writer) {
+        for (int i = 0; i < mSize; i++) {
+            int index = indexOf(i);
+            writer.print(mTimes[index]);
+            writer.print(' ');
+            writer.print(Integer.toHexString(mRows[index]));
+            writer.print(' ');
+            writer.print(EVENT_NAMES[mTypes[index]]);
+            writer.print(' ');
+            writer.println(mValues[index]);
+        }
+        writer.flush();
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.yanxin.library.simpleswipelayout;
+
+/**
+ * Frame timing counters for swipe drags and settles, filled by every {@link SimpleSwipeLayout}
+ * it is set on. One instance is usually shared by all rows of a list.
+ * Written on the UI thread; poll it from there or tolerate slightly torn reads.
+ */
+public class SwipeFrameMetrics {
+
+    public static final int PHASE_DRAG = 0;
+    public static final int PHASE_SETTLE = 1;
+
+    /**
+     * Upper bounds in milliseconds of the frame duration histogram buckets. The last bucket
+     * holds everything above the last bound.
+     */
+    public static final int[] BUCKET_BOUNDS_MS = {8, 16, 24, 33, 50, 100};
+
+    private long mGestureCount;
+    private final long[] mFrameCount = new long[2];
+    private final long[] mJankFrameCount = new long[2];
+    private final long[] mTotalFrameNanos = new long[2];
+    private final long[][] mHistogram = new long[2][BUCKET_BOUNDS_MS.length + 1];
+    private long mSettleCount;
+    private long mTotalSettleNanos;
+    private long mMaxSettleNanos;
+
+    private long mLastGestureFrames;
+    private long mLastGestureJankFrames;
+    private long mLastSettleNanos;
+    private long mCurrentGestureFrames;
+    private long mCurrentGestureJankFrames;
+
+    void recordFrame(int phase, long durationNanos, long jankThresholdNanos) {
+        mFrameCount[phase]++;
+        mTotalFrameNanos[phase] += durationNanos;
+        mCurrentGestureFrames++;
+        if (durationNanos > jankThresholdNanos) {
+            mJankFrameCount[phase]++;
+            mCurrentGestureJankFrames++;
+        }
+        long durationMs = durationNanos / 1000000;
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_MS.length && durationMs >= BUCKET_BOUNDS_MS[bucket])
+            bucket++;
+        mHistogram[phase][bucket]++;
+    }
+
+    void recordSettle(long durationNanos) {
+        mSettleCount++;
+        mTotalSettleNanos += durationNanos;
+        mMaxSettleNanos = Math.max(mMaxSettleNanos, durationNanos);
+        mLastSettleNanos = durationNanos;
+    }
+
+    void recordGestureEnd() {
+        mGestureCount++;
+        mLastGestureFrames = mCurrentGestureFrames;
+        mLastGestureJankFrames = mCurrentGestureJankFrames;
+        mCurrentGestureFrames = 0;
+        mCurrentGestureJankFrames = 0;
+    }
+
+    public long getGestureCount() {
+        return mGestureCount;
+    }
+
+    public long getFrameCount(int phase) {
+        return mFrameCount[phase];
+    }
+
+    /**
+     * @return frames of the given phase that missed at least one vsync
+     */
+    public long getJankFrameCount(int phase) {
+        return mJankFrameCount[phase];
+    }
+
+    public long getAverageFrameNanos(int phase) {
+        return mFrameCount[phase] == 0 ? 0 : mTotalFrameNanos[phase] / mFrameCount[phase];
+    }
+
+    /**
+     * Copy the frame duration histogram of a phase, bucketed by {@link #BUCKET_BOUNDS_MS}.
+     */
+    public void getHistogram(int phase, long[] out) {
+        System.arraycopy(mHistogram[phase], 0, out, 0, mHistogram[phase].length);
+    }
+
+    public long getSettleCount() {
+        return mSettleCount;
+    }
+
+    public long getAverageSettleNanos() {
+        return mSettleCount == 0 ? 0 : mTotalSettleNanos / mSettleCount;
+    }
+
+    public long getMaxSettleNanos() {
+        return mMaxSettleNanos;
+    }
+
+    public long getLastGestureFrames() {
+        return mLastGestureFrames;
+    }
+
+    public long getLastGestureJankFrames() {
+        return mLastGestureJankFrames;
+    }
+
+    public long getLastSettleNanos() {
+        return mLastSettleNanos;
+    }
+
+    public void reset() {
+        mGestureCount = 0;
+        mSettleCount = 0;
+        mTotalSettleNanos = 0;
+        mMaxSettleNanos = 0;
+        mLastGestureFrames = 0;
+        mLastGestureJankFrames = 0;
+        mLastSettleNanos = 0;
+        mCurrentGestureFrames = 0;
+        mCurrentGestureJankFrames = 0;
+        for (int phase = 0; phase < 2; phase++) {
+            mFrameCount[phase] = 0;
+            mJankFrameCount[phase] = 0;
+            mTotalFrameNanos[phase] = 0;
+            for (int i = 0; i < mHistogram[phase].length; i++)
+                mHistogram[phase][i] = 0;
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.yanxin.library.simpleswipelayout;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+
+/**
+ * Follows vsync with a Choreographer callback while one gesture is dragging or settling.
+ * Only created on API 16+, when frame metrics are enabled.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+class SwipeFrameTracker implements Choreographer.FrameCallback {
+
+    private final SwipeFrameMetrics mMetrics;
+    private final long mJankThresholdNanos;
+
+    private boolean mRunning;
+    private int mPhase;
+    private long mLastFrameNanos;
+    private long mSettleStartNanos;
+
+    SwipeFrameTracker(SwipeFrameMetrics metrics, float refreshRate) {
+        mMetrics = metrics;
+        long frameBudgetNanos = (long) (1000000000L / (refreshRate > 0 ? refreshRate : 60));
+        // Vsync-to-vsync deltas jitter around the budget; a missed vsync shows up as ~2x.
+        mJankThresholdNanos = frameBudgetNanos * 3 / 2;
+    }
+
+    SwipeFrameMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    void begin(int phase) {
+        mPhase = phase;
+        if (phase == SwipeFrameMetrics.PHASE_SETTLE && mSettleStartNanos == 0)
+            mSettleStartNanos = System.nanoTime();
+        if (mRunning)
+            return;
+        mRunning = true;
+        mLastFrameNanos = 0;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    void end() {
+        if (!mRunning)
+            return;
+        Choreographer.getInstance().removeFrameCallback(this);
+        if (mSettleStartNanos != 0)
+            mMetrics.recordSettle(System.nanoTime() - mSettleStartNanos);
+        mMetrics.recordGestureEnd();
+        mRunning = false;
+        mSettleStartNanos = 0;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mRunning)
+            return;
+        if (mLastFrameNanos != 0)
+            mMetrics.recordFrame(mPhase, frameTimeNanos - mLastFrameNanos, mJankThresholdNanos);
+        mLastFrameNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+}
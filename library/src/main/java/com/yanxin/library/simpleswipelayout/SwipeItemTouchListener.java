@@ -0,0 +1,180 @@
+package com.yanxin.library.simpleswipelayout;
+
+import android.content.Context;
+import android.support.v4.view.MotionEventCompat;
+import android.support.v4.view.VelocityTrackerCompat;
+import android.support.v7.widget.RecyclerView;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.ViewConfiguration;
+
+import com.yanxin.library.simpleswipelayout.gesture.GestureClassifier;
+
+/**
+ * Drives the swipe of every {@link SimpleSwipeLayout} in a RecyclerView from one place.
+ * Rows touched through this listener skip their own intercept pipeline and drag helper.
+ */
+public class SwipeItemTouchListener implements RecyclerView.OnItemTouchListener {
+
+    private final GestureClassifier mGestureClassifier;
+    private final float mMaxVelocity;
+
+    private VelocityTracker mVelocityTracker;
+    private SimpleSwipeLayout mTarget;
+    private float mLastX;
+    private boolean mDragging;
+    private boolean mCloseOnScroll = true;
+
+    public SwipeItemTouchListener(Context context) {
+        ViewConfiguration configuration = ViewConfiguration.get(context);
+        mGestureClassifier = new GestureClassifier(configuration.getScaledTouchSlop());
+        mMaxVelocity = configuration.getScaledMaximumFlingVelocity();
+    }
+
+    public void setMaxDragAngle(float degrees) {
+        mGestureClassifier.setMaxDragAngle(degrees);
+    }
+
+    /**
+     * Close open rows as soon as the list starts scrolling. On by default.
+     */
+    public void setCloseOnScroll(boolean closeOnScroll) {
+        mCloseOnScroll = closeOnScroll;
+    }
+
+    /**
+     * Drive the rows of the given list from one listener. This is required for rows to ignore
+     * touches while the list is flinging and to close when the list starts scrolling: a row on
+     * its own never sees those, because the list intercepts ACTION_DOWN while it is settling.
+     */
+    public static SwipeItemTouchListener attach(RecyclerView recyclerView) {
+        SwipeItemTouchListener listener = new SwipeItemTouchListener(recyclerView.getContext());
+        recyclerView.addOnItemTouchListener(listener);
+        recyclerView.addOnScrollListener(listener.mScrollListener);
+        return listener;
+    }
+
+    private final RecyclerView.OnScrollListener mScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+            if (newState != RecyclerView.SCROLL_STATE_DRAGGING || !mCloseOnScroll || mDragging)
+                return;
+            for (int i = 0; i < recyclerView.getChildCount(); i++) {
+                SimpleSwipeLayout layout = SimpleSwipeLayout.findIn(recyclerView.getChildAt(i));
+                if (layout != null && layout.getTargetStatus() != SimpleSwipeLayout.Status.Close)
+                    layout.smoothClose();
+            }
+        }
+    };
+
+    @Override
+    public boolean onInterceptTouchEvent(RecyclerView rv, MotionEvent e) {
+        int action = MotionEventCompat.getActionMasked(e);
+        if (action == MotionEvent.ACTION_DOWN)
+            reset();
+        trackVelocity(e);
+        switch (action) {
+            case MotionEvent.ACTION_DOWN:
+                GestureEvents.classify(mGestureClassifier, e);
+                // A touch that catches a fling belongs to the list.
+                if (rv.getScrollState() != RecyclerView.SCROLL_STATE_IDLE)
+                    return false;
+                mTarget = SimpleSwipeLayout.findIn(rv.findChildViewUnder(e.getX(), e.getY()));
+                if (mTarget != null) {
+                    mTarget.logSwipeEvent(SwipeEventLog.EVENT_DOWN, 0);
+                    mTarget.setSwipeController(this);
+                    mTarget.stopSettling();
+                }
+                return false;
+            case MotionEventCompat.ACTION_POINTER_UP:
+                GestureEvents.classify(mGestureClassifier, e);
+                return false;
+            case MotionEvent.ACTION_MOVE:
+                if (mTarget == null || !mTarget.canSwipe())
+                    return false;
+                int direction = GestureEvents.classify(mGestureClassifier, e);
+                if (direction == GestureClassifier.DIRECTION_VERTICAL) {
+                    // The list owns this gesture; stop looking at the rest of it.
+                    mTarget.logSwipeEvent(SwipeEventLog.EVENT_INTERCEPT, 0);
+                    reset();
+                    return false;
+                }
+                if (direction == GestureClassifier.DIRECTION_HORIZONTAL) {
+                    int index = MotionEventCompat.findPointerIndex(e, mGestureClassifier.getActivePointerId());
+                    if (index < 0)
+                        return false;
+                    mDragging = true;
+                    mLastX = MotionEventCompat.getX(e, index);
+                    mTarget.logSwipeEvent(SwipeEventLog.EVENT_INTERCEPT, 1);
+                    mTarget.beginControllerDrag();
+                    rv.getParent().requestDisallowInterceptTouchEvent(true);
+                    return true;
+                }
+                return false;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                reset();
+                return false;
+        }
+        return false;
+    }
+
+    @Override
+    public void onTouchEvent(RecyclerView rv, MotionEvent e) {
+        if (!mDragging || mTarget == null)
+            return;
+        trackVelocity(e);
+        switch (MotionEventCompat.getActionMasked(e)) {
+            case MotionEvent.ACTION_MOVE:
+                int index = MotionEventCompat.findPointerIndex(e, mGestureClassifier.getActivePointerId());
+                if (index < 0)
+                    return;
+                int dx = (int) (MotionEventCompat.getX(e, index) - mLastX);
+                if (dx != 0) {
+                    mLastX += dx;
+                    mTarget.dragContentBy(dx);
+                }
+                break;
+            case MotionEventCompat.ACTION_POINTER_UP:
+                int pointerId = mGestureClassifier.getActivePointerId();
+                GestureEvents.classify(mGestureClassifier, e);
+                if (pointerId != mGestureClassifier.getActivePointerId())
+                    mLastX = MotionEventCompat.getX(e, MotionEventCompat.findPointerIndex(e,
+                            mGestureClassifier.getActivePointerId()));
+                break;
+            case MotionEvent.ACTION_UP:
+                int activePointerId = mGestureClassifier.getActivePointerId();
+                mVelocityTracker.computeCurrentVelocity(1000, mMaxVelocity);
+                mTarget.releaseContent(
+                        VelocityTrackerCompat.getXVelocity(mVelocityTracker, activePointerId),
+                        VelocityTrackerCompat.getYVelocity(mVelocityTracker, activePointerId)
+                );
+                reset();
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                mTarget.releaseContent(0, 0);
+                reset();
+                break;
+        }
+    }
+
+    @Override
+    public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+        if (disallowIntercept && !mDragging)
+            reset();
+    }
+
+    private void trackVelocity(MotionEvent e) {
+        if (mVelocityTracker == null)
+            mVelocityTracker = VelocityTracker.obtain();
+        mVelocityTracker.addMovement(e);
+    }
+
+    private void reset() {
+        mTarget = null;
+        mDragging = false;
+        if (mVelocityTracker != null)
+            mVelocityTracker.clear();
+    }
+
+}
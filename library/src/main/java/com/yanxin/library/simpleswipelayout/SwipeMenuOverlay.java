@@ -0,0 +1,229 @@
+package com.yanxin.library.simpleswipelayout;
+
+import android.graphics.Canvas;
+import android.support.v4.view.ViewCompat;
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import com.yanxin.library.simpleswipelayout.interfaces.MenuBinder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shares menu views between all rows of a RecyclerView. Rows keep only their content view
+ * and declare their menu type with app:menu_layout; the overlay inflates one menu view set
+ * per type and draws it behind whichever rows are revealed, following their geometry.
+ * A second set of a type is only created while two rows of that type are revealed at once.
+ */
+public class SwipeMenuOverlay extends RecyclerView.ItemDecoration
+        implements RecyclerView.OnChildAttachStateChangeListener {
+
+    private final RecyclerView mRecyclerView;
+    private final MenuBinder mMenuBinder;
+    private final SparseArray<List<MenuSet>> mFreeSets = new SparseArray<>();
+    private final List<MenuSet> mActiveSets = new ArrayList<>();
+
+    static class MenuSet {
+        final int menuLayout;
+        final List<View> views = new ArrayList<>();
+        final int[] widths;
+        final int[] lefts;
+        final FrameLayout holder;
+        int measuredHeight = -1;
+        int dragDistance;
+        SimpleSwipeLayout row;
+
+        MenuSet(int menuLayout, FrameLayout holder) {
+            this.menuLayout = menuLayout;
+            this.holder = holder;
+            for (int i = 0; i < holder.getChildCount(); i++)
+                views.add(holder.getChildAt(i));
+            widths = new int[views.size()];
+            lefts = new int[views.size()];
+        }
+    }
+
+    public SwipeMenuOverlay(RecyclerView recyclerView, MenuBinder menuBinder) {
+        mRecyclerView = recyclerView;
+        mMenuBinder = menuBinder;
+    }
+
+    public static SwipeMenuOverlay attach(RecyclerView recyclerView, MenuBinder menuBinder) {
+        SwipeMenuOverlay overlay = new SwipeMenuOverlay(recyclerView, menuBinder);
+        recyclerView.addItemDecoration(overlay);
+        recyclerView.addOnChildAttachStateChangeListener(overlay);
+        for (int i = 0; i < recyclerView.getChildCount(); i++)
+            overlay.onChildViewAttachedToWindow(recyclerView.getChildAt(i));
+        return overlay;
+    }
+
+    public void detach() {
+        mRecyclerView.removeItemDecoration(this);
+        mRecyclerView.removeOnChildAttachStateChangeListener(this);
+        for (int i = 0; i < mRecyclerView.getChildCount(); i++) {
+            SimpleSwipeLayout row = SimpleSwipeLayout.findIn(mRecyclerView.getChildAt(i));
+            if (row != null && row.getMenuOverlay() == this)
+                row.setMenuOverlay(null);
+        }
+        mActiveSets.clear();
+    }
+
+    @Override
+    public void onChildViewAttachedToWindow(View view) {
+        SimpleSwipeLayout row = SimpleSwipeLayout.findIn(view);
+        if (row != null && row.getOverlayMenuLayout() != 0)
+            row.setMenuOverlay(this);
+    }
+
+    @Override
+    public void onChildViewDetachedFromWindow(View view) {
+        SimpleSwipeLayout row = SimpleSwipeLayout.findIn(view);
+        if (row != null)
+            release(row);
+    }
+
+    /**
+     * Total width of the menus of the given type at the given row height.
+     */
+    int getDragDistance(int menuLayout, int height) {
+        MenuSet set = peekSet(menuLayout);
+        measure(set, height);
+        return set.dragDistance;
+    }
+
+    void onRowOffsetChanged(SimpleSwipeLayout row, int offset) {
+        MenuSet set = findActive(row);
+        if (offset == 0) {
+            if (set != null)
+                release(row);
+        } else if (set == null) {
+            set = obtainSet(row.getOverlayMenuLayout());
+            set.row = row;
+            measure(set, row.getContentHeight());
+            mActiveSets.add(set);
+            if (mMenuBinder != null)
+                mMenuBinder.onBindMenu(row, set.views);
+        }
+        mRecyclerView.invalidate();
+    }
+
+    /**
+     * @return the menu view under (x, y) in row coordinates, or null
+     */
+    View findMenuViewUnder(SimpleSwipeLayout row, float x, float y) {
+        MenuSet set = findActive(row);
+        if (set == null)
+            return null;
+        row.computeOverlayMenuLefts(set.widths, set.views.size(), set.lefts);
+        int top = row.getContentTop();
+        if (y < top || y >= top + set.measuredHeight)
+            return null;
+        for (int i = set.views.size() - 1; i >= 0; i--) {
+            if (x >= set.lefts[i] && x < set.lefts[i] + set.widths[i])
+                return set.views.get(i);
+        }
+        return null;
+    }
+
+    @Override
+    public void onDraw(Canvas c, RecyclerView parent, RecyclerView.State state) {
+        for (int i = 0; i < mActiveSets.size(); i++) {
+            MenuSet set = mActiveSets.get(i);
+            SimpleSwipeLayout row = set.row;
+            float rowX = 0;
+            float rowY = 0;
+            View view = row;
+            while (view != parent) {
+                rowX += view.getLeft() + ViewCompat.getTranslationX(view);
+                rowY += view.getTop() + ViewCompat.getTranslationY(view);
+                if (!(view.getParent() instanceof View))
+                    break;
+                view = (View) view.getParent();
+            }
+            row.computeOverlayMenuLefts(set.widths, set.views.size(), set.lefts);
+            int saveCount = c.save();
+            c.translate(rowX, rowY);
+            c.clipRect(0, 0, row.getWidth(), row.getHeight());
+            int top = row.getContentTop();
+            for (int j = 0; j < set.views.size(); j++) {
+                View menu = set.views.get(j);
+                c.save();
+                c.translate(set.lefts[j], top);
+                menu.draw(c);
+                c.restore();
+            }
+            c.restoreToCount(saveCount);
+        }
+    }
+
+    private void release(SimpleSwipeLayout row) {
+        MenuSet set = findActive(row);
+        if (set == null)
+            return;
+        mActiveSets.remove(set);
+        set.row = null;
+        freeSets(set.menuLayout).add(set);
+        mRecyclerView.invalidate();
+    }
+
+    private MenuSet findActive(SimpleSwipeLayout row) {
+        for (int i = 0; i < mActiveSets.size(); i++) {
+            if (mActiveSets.get(i).row == row)
+                return mActiveSets.get(i);
+        }
+        return null;
+    }
+
+    private MenuSet peekSet(int menuLayout) {
+        List<MenuSet> free = freeSets(menuLayout);
+        if (free.isEmpty())
+            free.add(inflateSet(menuLayout));
+        return free.get(free.size() - 1);
+    }
+
+    private MenuSet obtainSet(int menuLayout) {
+        peekSet(menuLayout);
+        List<MenuSet> free = freeSets(menuLayout);
+        return free.remove(free.size() - 1);
+    }
+
+    private List<MenuSet> freeSets(int menuLayout) {
+        List<MenuSet> free = mFreeSets.get(menuLayout);
+        if (free == null) {
+            free = new ArrayList<>(1);
+            mFreeSets.put(menuLayout, free);
+        }
+        return free;
+    }
+
+    private MenuSet inflateSet(int menuLayout) {
+        FrameLayout holder = new FrameLayout(mRecyclerView.getContext());
+        LayoutInflater.from(mRecyclerView.getContext()).inflate(menuLayout, holder, true);
+        return new MenuSet(menuLayout, holder);
+    }
+
+    private void measure(MenuSet set, int height) {
+        if (set.measuredHeight == height)
+            return;
+        set.measuredHeight = height;
+        set.dragDistance = 0;
+        for (int i = 0; i < set.views.size(); i++) {
+            View view = set.views.get(i);
+            ViewGroup.LayoutParams lp = view.getLayoutParams();
+            int widthSpec = lp.width >= 0
+                    ? View.MeasureSpec.makeMeasureSpec(lp.width, View.MeasureSpec.EXACTLY)
+                    : View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+            int heightSpec = View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY);
+            view.measure(widthSpec, heightSpec);
+            view.layout(0, 0, view.getMeasuredWidth(), height);
+            set.widths[i] = view.getMeasuredWidth();
+            set.dragDistance += set.widths[i];
+        }
+    }
+
+}
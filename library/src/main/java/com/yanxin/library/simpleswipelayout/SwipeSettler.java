@@ -0,0 +1,124 @@
+package com.yanxin.library.simpleswipelayout;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.support.v4.view.ViewCompat;
+import android.view.Choreographer;
+
+import com.yanxin.library.simpleswipelayout.gesture.CriticallyDampedSpring;
+
+/**
+ * Moves the content view of a {@link SimpleSwipeLayout} to its open or closed position with a
+ * critically damped spring, one step per vsync, starting from the release velocity. The settle
+ * ends where the spring reaches its target, without the overshoot of a fast release.
+ * No frame is scheduled once the spring is at rest or cancelled.
+ */
+class SwipeSettler implements Runnable {
+
+    private static final float FIRST_FRAME_SECONDS = 1 / 60f;
+
+    private final SimpleSwipeLayout mLayout;
+    private final CriticallyDampedSpring mSpring = new CriticallyDampedSpring();
+    private final SettleFrameCallback mFrameCallback;
+
+    private boolean mRunning;
+    private long mLastFrameNanos;
+
+    SwipeSettler(SimpleSwipeLayout layout) {
+        mLayout = layout;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
+            mFrameCallback = new SettleFrameCallback(this);
+        else
+            mFrameCallback = null;
+    }
+
+    boolean isRunning() {
+        return mRunning;
+    }
+
+    int getTargetLeft() {
+        return Math.round(mSpring.getTarget());
+    }
+
+    /**
+     * Start settling towards toLeft. A running spring keeps its exact position and velocity and
+     * only changes target, so retargeting mid-flight has no velocity jump.
+     */
+    void start(int fromLeft, int toLeft, float velocity) {
+        if (mRunning) {
+            mSpring.start(mSpring.getPosition(), mSpring.getVelocity(), toLeft);
+            return;
+        }
+        mSpring.start(fromLeft, velocity, toLeft);
+        mLastFrameNanos = 0;
+        mRunning = true;
+        scheduleFrame();
+    }
+
+    void cancel() {
+        if (!mRunning)
+            return;
+        mRunning = false;
+        if (mFrameCallback != null)
+            mFrameCallback.remove();
+        else
+            mLayout.removeCallbacks(this);
+    }
+
+    @Override
+    public void run() {
+        doFrame(System.nanoTime());
+    }
+
+    void doFrame(long frameTimeNanos) {
+        if (!mRunning)
+            return;
+        // The first frame has no previous one to measure from; assume one nominal frame.
+        float dt = mLastFrameNanos == 0 ? FIRST_FRAME_SECONDS
+                : Math.max(0, frameTimeNanos - mLastFrameNanos) / 1000000000f;
+        mLastFrameNanos = frameTimeNanos;
+        float before = mSpring.getPosition() - mSpring.getTarget();
+        boolean atRest = mSpring.advance(dt);
+        // Targets are the ends of the drag range, so a fast release that would carry the spring
+        // past one ends the settle there instead of overshooting and coming back.
+        boolean crossed = before * (mSpring.getPosition() - mSpring.getTarget()) < 0;
+        if (crossed)
+            atRest = true;
+        if (atRest)
+            mRunning = false;
+        mLayout.onSettleFrame(crossed ? getTargetLeft() : Math.round(mSpring.getPosition()), atRest);
+        if (mRunning)
+            scheduleFrame();
+    }
+
+    private void scheduleFrame() {
+        if (mFrameCallback != null)
+            mFrameCallback.post();
+        else
+            ViewCompat.postOnAnimation(mLayout, this);
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class SettleFrameCallback implements Choreographer.FrameCallback {
+
+        private final SwipeSettler mSettler;
+
+        SettleFrameCallback(SwipeSettler settler) {
+            mSettler = settler;
+        }
+
+        void post() {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        void remove() {
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mSettler.doFrame(frameTimeNanos);
+        }
+    }
+
+}
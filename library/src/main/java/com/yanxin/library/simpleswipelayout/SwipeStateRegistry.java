@@ -0,0 +1,267 @@
+package com.yanxin.library.simpleswipelayout;
+
+import android.support.v4.util.LongSparseArray;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewParent;
+
+import com.yanxin.library.simpleswipelayout.SimpleSwipeLayout.Status;
+import com.yanxin.library.simpleswipelayout.interfaces.MenuBinder;
+import com.yanxin.library.simpleswipelayout.interfaces.SwipeMenuClickListener;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Remembers the {@link Status} of every row of an adapter so it survives view recycling.
+ * Rows are keyed by stable id when the adapter has them, otherwise by adapter position.
+ * Only rows that differ from the list-wide default are stored, so lookups stay small and
+ * {@link #closeAll}/{@link #openAll} stay cheap no matter how long the list is.
+ */
+public class SwipeStateRegistry {
+
+    private static final long NO_KEY = Long.MIN_VALUE;
+
+    private final RecyclerView.Adapter mAdapter;
+    private final LongSparseArray<Status> mStatuses = new LongSparseArray<>();
+    // Weak, so rows RecyclerView drops from its pool are not kept alive by the registry.
+    private final List<WeakReference<SimpleSwipeLayout>> mBoundLayouts = new ArrayList<>();
+    private Status mDefaultStatus = Status.Close;
+    private boolean mSingleOpen;
+    private SwipeMenuClickListener mMenuClickListener;
+    private MenuBinder mMenuBinder;
+
+    private SimpleSwipeLayout mOpenLayout;
+    private long mOpenKey = NO_KEY;
+
+    public SwipeStateRegistry(RecyclerView.Adapter adapter) {
+        mAdapter = adapter;
+        mAdapter.registerAdapterDataObserver(mDataObserver);
+    }
+
+    public void setSingleOpen(boolean singleOpen) {
+        if (singleOpen && mDefaultStatus == Status.Open)
+            closeAll(false);
+        mSingleOpen = singleOpen;
+    }
+
+    public boolean isSingleOpen() {
+        return mSingleOpen;
+    }
+
+    /**
+     * Receives menu and content clicks of every row bound through this registry, with the
+     * row's adapter position, so binding a row never has to allocate a listener.
+     */
+    public void setMenuClickListener(SwipeMenuClickListener listener) {
+        mMenuClickListener = listener;
+    }
+
+    /**
+     * Set on every row bound through this registry; each bind starts a new menu binding
+     * generation, so the binder runs only for rows that are actually swiped or opened.
+     */
+    public void setMenuBinder(MenuBinder binder) {
+        mMenuBinder = binder;
+    }
+
+    void dispatchMenuClick(SimpleSwipeLayout layout, int id) {
+        if (mMenuClickListener != null)
+            mMenuClickListener.onMenuClick(layout, id, positionOf(layout));
+    }
+
+    /**
+     * Call from onBindViewHolder. Restores the stored status immediately, without animation.
+     */
+    public void bind(SimpleSwipeLayout layout, int position) {
+        long key = mAdapter.hasStableIds() ? mAdapter.getItemId(position) : position;
+        if (layout == mOpenLayout && key != mOpenKey)
+            mOpenLayout = null;
+        if (layout.getStateRegistry() != this)
+            trackLayout(layout);
+        layout.bindRegistry(this, key);
+        layout.invalidateMenuSnapshot();
+        if (mMenuBinder != null) {
+            layout.setMenuBinder(mMenuBinder);
+            layout.invalidateMenuBinding();
+        }
+        Status status = mStatuses.get(key, mDefaultStatus);
+        layout.setStatus(status, false);
+        if (status == Status.Open && key == mOpenKey)
+            mOpenLayout = layout;
+    }
+
+    public Status getStatus(int position) {
+        long key = mAdapter.hasStableIds() ? mAdapter.getItemId(position) : position;
+        return mStatuses.get(key, mDefaultStatus);
+    }
+
+    /**
+     * Close every row. Only attached rows that are not already closed animate, when smooth is
+     * true; every other row just picks the new status up the next time it is bound.
+     */
+    public void closeAll(boolean smooth) {
+        setAll(Status.Close, smooth);
+    }
+
+    /**
+     * Open every row, see {@link #closeAll}. Not available in single-open mode.
+     */
+    public void openAll(boolean smooth) {
+        if (mSingleOpen)
+            throw new IllegalStateException("openAll is not allowed in single-open mode");
+        setAll(Status.Open, smooth);
+    }
+
+    private void setAll(Status status, boolean smooth) {
+        mDefaultStatus = status;
+        mStatuses.clear();
+        mOpenLayout = null;
+        mOpenKey = NO_KEY;
+        for (int i = 0; i < mBoundLayouts.size(); i++) {
+            SimpleSwipeLayout layout = mBoundLayouts.get(i).get();
+            if (layout == null || layout.getStateRegistry() != this) {
+                mBoundLayouts.remove(i--);
+                continue;
+            }
+            // A row under the user's finger reports its own status once released.
+            if (layout.isDragging() || layout.getTargetStatus() == status)
+                continue;
+            if (smooth && layout.getWindowToken() != null)
+                layout.setStatus(status, true);
+            else
+                layout.setStatus(status, false);
+        }
+    }
+
+    private void trackLayout(SimpleSwipeLayout layout) {
+        for (int i = mBoundLayouts.size() - 1; i >= 0; i--) {
+            SimpleSwipeLayout bound = mBoundLayouts.get(i).get();
+            if (bound == null || bound.getStateRegistry() != this)
+                mBoundLayouts.remove(i);
+        }
+        mBoundLayouts.add(new WeakReference<>(layout));
+    }
+
+    void onStartOpen(SimpleSwipeLayout layout) {
+        if (!mSingleOpen || mOpenKey == NO_KEY || mOpenLayout == layout)
+            return;
+        closeOpenRow(keyOf(layout));
+    }
+
+    private void closeOpenRow(long exceptKey) {
+        if (mOpenKey == exceptKey)
+            return;
+        SimpleSwipeLayout previous = mOpenLayout;
+        mStatuses.remove(mOpenKey);
+        if (previous != null && previous.getStateRegistry() == this && keyOf(previous) == mOpenKey)
+            previous.smoothClose();
+        mOpenLayout = null;
+        mOpenKey = NO_KEY;
+    }
+
+    void onStatusChanged(SimpleSwipeLayout layout, Status status) {
+        long key = keyOf(layout);
+        if (status == mDefaultStatus)
+            mStatuses.remove(key);
+        else
+            mStatuses.put(key, status);
+        if (status == Status.Open) {
+            if (mSingleOpen && mOpenKey != NO_KEY)
+                closeOpenRow(key);
+            mOpenLayout = layout;
+            mOpenKey = key;
+            return;
+        }
+        if (key == mOpenKey) {
+            mOpenLayout = null;
+            mOpenKey = NO_KEY;
+        }
+    }
+
+    private long keyOf(SimpleSwipeLayout layout) {
+        if (mAdapter.hasStableIds())
+            return layout.getRegistryKey();
+        int position = positionOf(layout);
+        if (position != RecyclerView.NO_POSITION)
+            return position;
+        return layout.getRegistryKey();
+    }
+
+    private static int positionOf(SimpleSwipeLayout layout) {
+        View child = layout;
+        ViewParent parent = child.getParent();
+        while (parent instanceof View && !(parent instanceof RecyclerView)) {
+            child = (View) parent;
+            parent = child.getParent();
+        }
+        if (parent instanceof RecyclerView)
+            return ((RecyclerView) parent).getChildAdapterPosition(child);
+        return RecyclerView.NO_POSITION;
+    }
+
+    private void shiftPositions(int start, int removedCount, int insertedCount) {
+        if (mAdapter.hasStableIds() || mStatuses.size() == 0)
+            return;
+        LongSparseArray<Status> shifted = mStatuses.clone();
+        mStatuses.clear();
+        long openKey = mOpenKey;
+        mOpenKey = NO_KEY;
+        for (int i = 0; i < shifted.size(); i++) {
+            long key = shifted.keyAt(i);
+            long newKey = key;
+            if (key >= start + removedCount)
+                newKey = key - removedCount + insertedCount;
+            else if (key >= start && removedCount > 0)
+                continue;
+            else if (key >= start)
+                newKey = key + insertedCount;
+            mStatuses.put(newKey, shifted.valueAt(i));
+            if (key == openKey)
+                mOpenKey = newKey;
+        }
+        if (mOpenKey == NO_KEY)
+            mOpenLayout = null;
+    }
+
+    private final RecyclerView.AdapterDataObserver mDataObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            if (mAdapter.hasStableIds())
+                return;
+            mStatuses.clear();
+            mOpenLayout = null;
+            mOpenKey = NO_KEY;
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            shiftPositions(positionStart, 0, itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            shiftPositions(positionStart, itemCount, 0);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            if (mAdapter.hasStableIds())
+                return;
+            Status status = mStatuses.get(fromPosition);
+            boolean wasOpenKey = mOpenKey == fromPosition;
+            SimpleSwipeLayout openLayout = mOpenLayout;
+            shiftPositions(fromPosition, 1, 0);
+            shiftPositions(toPosition, 0, 1);
+            if (status != null) {
+                mStatuses.put(toPosition, status);
+                if (wasOpenKey) {
+                    mOpenKey = toPosition;
+                    mOpenLayout = openLayout;
+                }
+            }
+        }
+    };
+
+}
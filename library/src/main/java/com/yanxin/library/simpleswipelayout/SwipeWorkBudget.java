@@ -0,0 +1,104 @@
+package com.yanxin.library.simpleswipelayout;
+
+import com.yanxin.library.simpleswipelayout.interfaces.SwipeBudgetListener;
+
+/**
+ * Limits on the layout passes, requestLayout() and invalidate() calls a {@link SimpleSwipeLayout}
+ * may cause per frame of a drag or settle, and totals over every frame it has seen.
+ * Each row counts its own frames, closed on every vsync tick, so one instance can be shared
+ * by all rows of a list like {@link SwipeFrameMetrics}. Requires API 16.
+ */
+public class SwipeWorkBudget {
+
+    private int mMaxLayouts;
+    private int mMaxRequestLayouts;
+    private int mMaxInvalidates = 8;
+    private SwipeBudgetListener mListener;
+
+    private int mFrameLayouts;
+    private int mFrameRequestLayouts;
+    private int mFrameInvalidates;
+
+    private long mFrameCount;
+    private long mViolationCount;
+    private int mPeakLayouts;
+    private int mPeakRequestLayouts;
+    private int mPeakInvalidates;
+
+    /**
+     * Limits per frame. Dragging only moves views, so by default no layout pass and no
+     * requestLayout() is allowed. Invalidations of the row's children count towards the
+     * invalidate limit.
+     */
+    public void setLimits(int maxLayouts, int maxRequestLayouts, int maxInvalidates) {
+        mMaxLayouts = maxLayouts;
+        mMaxRequestLayouts = maxRequestLayouts;
+        mMaxInvalidates = maxInvalidates;
+    }
+
+    public void setBudgetListener(SwipeBudgetListener listener) {
+        mListener = listener;
+    }
+
+    void recordFrame(SimpleSwipeLayout layout, int layouts, int requestLayouts, int invalidates) {
+        mFrameLayouts = layouts;
+        mFrameRequestLayouts = requestLayouts;
+        mFrameInvalidates = invalidates;
+        mFrameCount++;
+        mPeakLayouts = Math.max(mPeakLayouts, layouts);
+        mPeakRequestLayouts = Math.max(mPeakRequestLayouts, requestLayouts);
+        mPeakInvalidates = Math.max(mPeakInvalidates, invalidates);
+        if (layouts > mMaxLayouts || requestLayouts > mMaxRequestLayouts || invalidates > mMaxInvalidates) {
+            mViolationCount++;
+            if (mListener != null)
+                mListener.onBudgetExceeded(layout, this);
+        }
+    }
+
+    /**
+     * @return layout passes of the most recently recorded frame
+     */
+    public int getFrameLayouts() {
+        return mFrameLayouts;
+    }
+
+    public int getFrameRequestLayouts() {
+        return mFrameRequestLayouts;
+    }
+
+    public int getFrameInvalidates() {
+        return mFrameInvalidates;
+    }
+
+    public long getFrameCount() {
+        return mFrameCount;
+    }
+
+    public long getViolationCount() {
+        return mViolationCount;
+    }
+
+    public int getPeakLayouts() {
+        return mPeakLayouts;
+    }
+
+    public int getPeakRequestLayouts() {
+        return mPeakRequestLayouts;
+    }
+
+    public int getPeakInvalidates() {
+        return mPeakInvalidates;
+    }
+
+    public void reset() {
+        mFrameLayouts = 0;
+        mFrameRequestLayouts = 0;
+        mFrameInvalidates = 0;
+        mFrameCount = 0;
+        mViolationCount = 0;
+        mPeakLayouts = 0;
+        mPeakRequestLayouts = 0;
+        mPeakInvalidates = 0;
+    }
+
+}
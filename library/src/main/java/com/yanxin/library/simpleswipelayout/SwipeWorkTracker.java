@@ -0,0 +1,76 @@
+package com.yanxin.library.simpleswipelayout;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+
+/**
+ * Counts the work of one row and hands it to its {@link SwipeWorkBudget} on every vsync tick
+ * while the row drags or settles, so frames in which the row does not draw still close.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+class SwipeWorkTracker implements Choreographer.FrameCallback {
+
+    private final SimpleSwipeLayout mLayout;
+    private final SwipeWorkBudget mBudget;
+
+    private boolean mRunning;
+    private int mLayouts;
+    private int mRequestLayouts;
+    private int mInvalidates;
+
+    SwipeWorkTracker(SimpleSwipeLayout layout, SwipeWorkBudget budget) {
+        mLayout = layout;
+        mBudget = budget;
+    }
+
+    SwipeWorkBudget getBudget() {
+        return mBudget;
+    }
+
+    void countLayout() {
+        mLayouts++;
+    }
+
+    void countRequestLayout() {
+        mRequestLayouts++;
+    }
+
+    void countInvalidate() {
+        mInvalidates++;
+    }
+
+    void begin() {
+        if (mRunning)
+            return;
+        mRunning = true;
+        clear();
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    void end() {
+        if (!mRunning)
+            return;
+        Choreographer.getInstance().removeFrameCallback(this);
+        mRunning = false;
+        if (mLayouts != 0 || mRequestLayouts != 0 || mInvalidates != 0)
+            mBudget.recordFrame(mLayout, mLayouts, mRequestLayouts, mInvalidates);
+        clear();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mRunning)
+            return;
+        mBudget.recordFrame(mLayout, mLayouts, mRequestLayouts, mInvalidates);
+        clear();
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    private void clear() {
+        mLayouts = 0;
+        mRequestLayouts = 0;
+        mInvalidates = 0;
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.yanxin.library.simpleswipelayout.geometry;
+
+/**
+ * Geometry of the built-in modes. The static methods are what SimpleSwipeLayout calls on
+ * the drag path; the strategy constants wrap them for code that wants a MenuRevealStrategy.
+ */
+public final class MenuGeometry {
+
+    public static final MenuRevealStrategy LAY_DOWN = new MenuRevealStrategy() {
+        @Override
+        public void computeMenuLefts(int offset, int anchor, int[] widths, int count, int[] outLefts) {
+            layDown(offset, anchor, widths, count, outLefts);
+        }
+    };
+
+    public static final MenuRevealStrategy PULL_OUT = new MenuRevealStrategy() {
+        @Override
+        public void computeMenuLefts(int offset, int anchor, int[] widths, int count, int[] outLefts) {
+            pullOut(offset, anchor, widths, count, outLefts);
+        }
+    };
+
+    public static final MenuRevealStrategy PULL_STACK = new MenuRevealStrategy() {
+        @Override
+        public void computeMenuLefts(int offset, int anchor, int[] widths, int count, int[] outLefts) {
+            pullStack(offset, anchor, widths, count, outLefts);
+        }
+    };
+
+    private MenuGeometry() {
+    }
+
+    public static void layDown(int offset, int anchor, int[] widths, int count, int[] outLefts) {
+        int right = anchor;
+        for (int i = count - 1; i >= 0; i--) {
+            right -= widths[i];
+            outLefts[i] = right;
+        }
+    }
+
+    public static void pullOut(int offset, int anchor, int[] widths, int count, int[] outLefts) {
+        int left = anchor + offset;
+        for (int i = 0; i < count; i++) {
+            outLefts[i] = left;
+            left += widths[i];
+        }
+    }
+
+    public static void pullStack(int offset, int anchor, int[] widths, int count, int[] outLefts) {
+        if (count == 0)
+            return;
+        int result = offset / count;
+        int remainder = offset % count;
+        int unit = 0;
+        if (remainder != 0)
+            unit = remainder / Math.abs(remainder);
+        outLefts[0] = anchor + offset;
+        for (int i = 1; i < count; i++) {
+            outLefts[i] = anchor + result * (count - i) + unit;
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.yanxin.library.simpleswipelayout.geometry;
+
+/**
+ * Menu left edges of a {@link MenuRevealStrategy} precomputed for every integer drag offset,
+ * stored relative to the anchor so a drag frame is one array copy. Only valid for strategies
+ * that place menus relative to the anchor, as the built-in ones do.
+ */
+public final class MenuPositionTable {
+
+    private final short[] mLefts;
+    private final int mCount;
+    private final int mDragDistance;
+    private final MenuRevealStrategy mStrategy;
+    private final int[] mWidths;
+
+    private MenuPositionTable(short[] lefts, int count, int dragDistance, MenuRevealStrategy strategy,
+                              int[] widths) {
+        mLefts = lefts;
+        mCount = count;
+        mDragDistance = dragDistance;
+        mStrategy = strategy;
+        mWidths = widths;
+    }
+
+    /**
+     * @return the table, or null when it would take more than maxBytes or an edge does not
+     * fit in a short; callers then compute the geometry on the fly
+     */
+    public static MenuPositionTable build(MenuRevealStrategy strategy, int[] widths, int count,
+                                          int dragDistance, int maxBytes) {
+        if (count == 0 || dragDistance <= 0)
+            return null;
+        long bytes = (long) (dragDistance + 1) * count * 2;
+        if (bytes > maxBytes)
+            return null;
+        short[] table = new short[(dragDistance + 1) * count];
+        int[] lefts = new int[count];
+        for (int step = 0; step <= dragDistance; step++) {
+            strategy.computeMenuLefts(-step, 0, widths, count, lefts);
+            for (int i = 0; i < count; i++) {
+                if (lefts[i] < Short.MIN_VALUE || lefts[i] > Short.MAX_VALUE)
+                    return null;
+                table[step * count + i] = (short) lefts[i];
+            }
+        }
+        int[] tableWidths = new int[count];
+        System.arraycopy(widths, 0, tableWidths, 0, count);
+        return new MenuPositionTable(table, count, dragDistance, strategy, tableWidths);
+    }
+
+    /**
+     * @return true if {@link #build} with these arguments would give this same table, so it can
+     * be reused
+     */
+    public boolean isBuiltFor(MenuRevealStrategy strategy, int[] widths, int count, int dragDistance,
+                              int maxBytes) {
+        if (strategy != mStrategy || count != mCount || dragDistance != mDragDistance
+                || mLefts.length * 2 > maxBytes)
+            return false;
+        for (int i = 0; i < count; i++) {
+            if (widths[i] != mWidths[i])
+                return false;
+        }
+        return true;
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    public int getDragDistance() {
+        return mDragDistance;
+    }
+
+    /**
+     * @return false if offset is outside the table, leaving outLefts untouched
+     */
+    public boolean lookup(int offset, int anchor, int[] outLefts) {
+        if (offset > 0 || offset < -mDragDistance)
+            return false;
+        int base = -offset * mCount;
+        for (int i = 0; i < mCount; i++)
+            outLefts[i] = anchor + mLefts[base + i];
+        return true;
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.yanxin.library.simpleswipelayout.geometry;
+
+/**
+ * Maps the drag offset of the content view to the left edge of every menu item.
+ * Implementations only deal with primitives so they can run on a plain JVM.
+ */
+public interface MenuRevealStrategy {
+
+    /**
+     * @param offset   content left minus its closed left, from 0 (closed) to -sum(widths) (open)
+     * @param anchor   right edge of the content view when closed
+     * @param widths   measured width of each menu item
+     * @param count    number of menu items to compute
+     * @param outLefts receives the left edge of each menu item
+     */
+    void computeMenuLefts(int offset, int anchor, int[] widths, int count, int[] outLefts);
+
+}
@@ -0,0 +1,83 @@
+package com.yanxin.library.simpleswipelayout.gesture;
+
+/**
+ * Closed-form critically damped spring: x(t) = target + (a + b * t) * e^(-w * t).
+ * Evaluating the closed form instead of integrating keeps it exact across dropped frames.
+ */
+public final class CriticallyDampedSpring {
+
+    public static final float DEFAULT_ANGULAR_FREQUENCY = 25f;
+
+    private static final float REST_DISTANCE = 0.5f;
+    private static final float REST_VELOCITY = 10f;
+
+    private float mAngularFrequency = DEFAULT_ANGULAR_FREQUENCY;
+
+    private float mTarget;
+    private float mA;
+    private float mB;
+    private float mElapsed;
+    private float mPosition;
+    private float mVelocity;
+
+    public void setAngularFrequency(float angularFrequency) {
+        mAngularFrequency = angularFrequency;
+    }
+
+    public float getAngularFrequency() {
+        return mAngularFrequency;
+    }
+
+    /**
+     * @param position start position in px
+     * @param velocity start velocity in px per second
+     * @param target   rest position in px
+     */
+    public void start(float position, float velocity, float target) {
+        mTarget = target;
+        mA = position - target;
+        mB = velocity + mAngularFrequency * mA;
+        mElapsed = 0;
+        mPosition = position;
+        mVelocity = velocity;
+    }
+
+    /**
+     * Advance the spring by dt seconds.
+     *
+     * @return true once the spring has come to rest on its target
+     */
+    public boolean advance(float dt) {
+        mElapsed += dt;
+        float decay = (float) Math.exp(-mAngularFrequency * mElapsed);
+        float displacement = (mA + mB * mElapsed) * decay;
+        mVelocity = (mB - mAngularFrequency * (mA + mB * mElapsed)) * decay;
+        mPosition = mTarget + displacement;
+        if (Math.abs(displacement) < REST_DISTANCE && Math.abs(mVelocity) < REST_VELOCITY) {
+            mPosition = mTarget;
+            mVelocity = 0;
+            return true;
+        }
+        return false;
+    }
+
+    public float getPosition() {
+        return mPosition;
+    }
+
+    public float getVelocity() {
+        return mVelocity;
+    }
+
+    public float getTarget() {
+        return mTarget;
+    }
+
+    /**
+     * Where a fling would carry the position if nothing pulled it back, used to pick the target.
+     */
+    public static float projectFling(float position, float velocity, float projectionSeconds) {
+        return position + velocity * projectionSeconds;
+    }
+
+}
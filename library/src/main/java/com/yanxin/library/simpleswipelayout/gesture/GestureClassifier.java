@@ -0,0 +1,92 @@
+package com.yanxin.library.simpleswipelayout.gesture;
+
+/**
+ * Decides once per gesture whether it is a horizontal swipe or a vertical scroll.
+ * The angle test is a slope comparison precomputed from the configured angle, so a move
+ * costs two multiplications at most and nothing once the direction is locked.
+ */
+public final class GestureClassifier {
+
+    public static final int DIRECTION_UNDECIDED = 0;
+    public static final int DIRECTION_HORIZONTAL = 1;
+    public static final int DIRECTION_VERTICAL = 2;
+
+    public static final float DEFAULT_MAX_DRAG_ANGLE = 70;
+
+    private float mTouchSlop;
+    private float mMaxDragAngle;
+    private float mMaxSlope;
+
+    private int mActivePointerId;
+    private float mDownX;
+    private float mDownY;
+    private int mDirection;
+
+    public GestureClassifier(float touchSlop) {
+        mTouchSlop = touchSlop;
+        setMaxDragAngle(DEFAULT_MAX_DRAG_ANGLE);
+    }
+
+    public void setTouchSlop(float touchSlop) {
+        mTouchSlop = touchSlop;
+    }
+
+    public float getTouchSlop() {
+        return mTouchSlop;
+    }
+
+    /**
+     * @param degrees the steepest angle from the horizontal axis that still counts as a swipe,
+     *                between 0 and 90 exclusive
+     */
+    public void setMaxDragAngle(float degrees) {
+        if (degrees <= 0 || degrees >= 90)
+            throw new IllegalArgumentException("angle must be between 0 and 90 degrees");
+        mMaxDragAngle = degrees;
+        mMaxSlope = (float) Math.tan(Math.toRadians(degrees));
+    }
+
+    public float getMaxDragAngle() {
+        return mMaxDragAngle;
+    }
+
+    public void start(int pointerId, float x, float y) {
+        mActivePointerId = pointerId;
+        mDownX = x;
+        mDownY = y;
+        mDirection = DIRECTION_UNDECIDED;
+    }
+
+    /**
+     * Continue the gesture with another pointer, measuring from where that pointer is now.
+     */
+    public void switchPointer(int pointerId, float x, float y) {
+        mActivePointerId = pointerId;
+        mDownX = x;
+        mDownY = y;
+    }
+
+    public int getActivePointerId() {
+        return mActivePointerId;
+    }
+
+    public int getDirection() {
+        return mDirection;
+    }
+
+    /**
+     * Nothing is decided until the move leaves the slop circle on either axis; the angle of the
+     * move at that point then locks the direction.
+     */
+    public int addSample(float x, float y) {
+        if (mDirection != DIRECTION_UNDECIDED)
+            return mDirection;
+        float dX = Math.abs(x - mDownX);
+        float dY = Math.abs(y - mDownY);
+        if (Math.max(dX, dY) <= mTouchSlop)
+            return mDirection;
+        mDirection = dY < dX * mMaxSlope ? DIRECTION_HORIZONTAL : DIRECTION_VERTICAL;
+        return mDirection;
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.yanxin.library.simpleswipelayout.gesture;
+
+/**
+ * Turns the events of a {@link SwipeStateMachine} and the offset of each move into listener
+ * calls, in order: start callbacks, the update, then open/close callbacks. With batching on,
+ * moves between two frames are summed into a single update that the host flushes on the next
+ * frame, or right away when a transition happens.
+ */
+public final class SwipeDispatcher {
+
+    public interface Callback {
+
+        void onStartOpen();
+
+        void onOpen();
+
+        void onStartClose();
+
+        void onClose();
+
+        void onUpdate(int dx, int dy);
+
+        /**
+         * Call {@link #flush()} on the next frame.
+         */
+        void scheduleFlush();
+
+        /**
+         * Drop the flush asked for with {@link #scheduleFlush()}.
+         */
+        void cancelFlush();
+    }
+
+    private final Callback mCallback;
+    private boolean mBatchUpdates;
+    private boolean mFlushScheduled;
+    private int mPendingDx;
+    private int mPendingDy;
+
+    public SwipeDispatcher(Callback callback) {
+        mCallback = callback;
+    }
+
+    public void setBatchUpdates(boolean batchUpdates) {
+        if (!batchUpdates)
+            flush();
+        mBatchUpdates = batchUpdates;
+    }
+
+    public boolean isBatchUpdates() {
+        return mBatchUpdates;
+    }
+
+    /**
+     * @param events EVENT_ flags from {@link SwipeStateMachine#onOffsetChanged}
+     */
+    public void dispatch(int events, int dx, int dy) {
+        // Reaching a resting state is itself an event that flushes, so nothing from an earlier
+        // phase is pending when a start event comes; one update per frame carries it all.
+        if ((events & SwipeStateMachine.EVENT_START_CLOSE) != 0)
+            mCallback.onStartClose();
+        if ((events & SwipeStateMachine.EVENT_START_OPEN) != 0)
+            mCallback.onStartOpen();
+        if (mBatchUpdates) {
+            mPendingDx += dx;
+            mPendingDy += dy;
+            if (events != 0)
+                flush();
+            else if (!mFlushScheduled) {
+                mFlushScheduled = true;
+                mCallback.scheduleFlush();
+            }
+        } else {
+            mCallback.onUpdate(dx, dy);
+        }
+        if ((events & SwipeStateMachine.EVENT_CLOSE) != 0)
+            mCallback.onClose();
+        if ((events & SwipeStateMachine.EVENT_OPEN) != 0)
+            mCallback.onOpen();
+    }
+
+    /**
+     * Deliver the pending update now, if any.
+     */
+    public void flush() {
+        if (mFlushScheduled) {
+            mFlushScheduled = false;
+            mCallback.cancelFlush();
+        }
+        int dx = mPendingDx;
+        int dy = mPendingDy;
+        mPendingDx = 0;
+        mPendingDy = 0;
+        if (dx != 0 || dy != 0)
+            mCallback.onUpdate(dx, dy);
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.yanxin.library.simpleswipelayout.gesture;
+
+/**
+ * Turns content offsets into swipe transitions, each reported once:
+ * Close -> Opening -> Open and Open -> Closing -> Close, where a gesture that returns to
+ * the edge it started from ends with that edge's event (Opening -> Close, Closing -> Open).
+ */
+public final class SwipeStateMachine {
+
+    public static final int STATE_CLOSE = 0;
+    public static final int STATE_OPENING = 1;
+    public static final int STATE_OPEN = 2;
+    public static final int STATE_CLOSING = 3;
+
+    public static final int EVENT_START_OPEN = 1;
+    public static final int EVENT_OPEN = 1 << 1;
+    public static final int EVENT_START_CLOSE = 1 << 2;
+    public static final int EVENT_CLOSE = 1 << 3;
+
+    private int mState = STATE_CLOSE;
+
+    public int getState() {
+        return mState;
+    }
+
+    /**
+     * Jump to a resting state without reporting any event.
+     */
+    public void reset(boolean open) {
+        mState = open ? STATE_OPEN : STATE_CLOSE;
+    }
+
+    /**
+     * @param offset       content left minus its closed left, from 0 to -dragDistance
+     * @param dragDistance total width of the menu
+     * @return the EVENT_ flags produced by this offset, start events first in dispatch order
+     */
+    public int onOffsetChanged(int offset, int dragDistance) {
+        if (dragDistance <= 0)
+            return 0;
+        boolean closed = offset >= 0;
+        boolean opened = offset <= -dragDistance;
+        int events = 0;
+        switch (mState) {
+            case STATE_CLOSE:
+                if (closed)
+                    return 0;
+                events = EVENT_START_OPEN;
+                mState = STATE_OPENING;
+                break;
+            case STATE_OPEN:
+                if (opened)
+                    return 0;
+                events = EVENT_START_CLOSE;
+                mState = STATE_CLOSING;
+                break;
+        }
+        if (opened) {
+            events |= EVENT_OPEN;
+            mState = STATE_OPEN;
+        } else if (closed) {
+            events |= EVENT_CLOSE;
+            mState = STATE_CLOSE;
+        }
+        return events;
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.yanxin.library.simpleswipelayout.interfaces;
+
+import android.view.View;
+
+import com.yanxin.library.simpleswipelayout.SimpleSwipeLayout;
+
+import java.util.List;
+
+public interface MenuBinder {
+
+    /**
+     * Called right before the menu views of a row become visible, so menu state only has to be
+     * filled in for rows that are actually swiped.
+     */
+    void onBindMenu(SimpleSwipeLayout layout, List<View> menuViews);
+
+}
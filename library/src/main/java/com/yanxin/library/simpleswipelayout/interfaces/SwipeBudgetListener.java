@@ -0,0 +1,14 @@
+package com.yanxin.library.simpleswipelayout.interfaces;
+
+import com.yanxin.library.simpleswipelayout.SimpleSwipeLayout;
+import com.yanxin.library.simpleswipelayout.SwipeWorkBudget;
+
+public interface SwipeBudgetListener {
+
+    /**
+     * Called on the vsync tick that closes a drag or settle frame of the given row in which it
+     * did more work than the budget allows. The frame's counters are readable from the budget.
+     */
+    void onBudgetExceeded(SimpleSwipeLayout layout, SwipeWorkBudget budget);
+
+}
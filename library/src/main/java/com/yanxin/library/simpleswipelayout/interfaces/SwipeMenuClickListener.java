@@ -0,0 +1,13 @@
+package com.yanxin.library.simpleswipelayout.interfaces;
+
+import com.yanxin.library.simpleswipelayout.SimpleSwipeLayout;
+
+public interface SwipeMenuClickListener {
+
+    /**
+     * @param id       id of the clicked menu or content view, or of the clicked MenuAction
+     * @param position adapter position of the row, or RecyclerView.NO_POSITION if it is unknown
+     */
+    void onMenuClick(SimpleSwipeLayout layout, int id, int position);
+
+}
@@ -0,0 +1,78 @@
+package com.yanxin.library.simpleswipelayout;
+
+import com.yanxin.library.simpleswipelayout.SimpleSwipeLayout.Mode;
+import com.yanxin.library.simpleswipelayout.SimpleSwipeLayout.Status;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Drag, fling and cancel in every mode, with and without translation drag, each held to the
+ * per-frame work and allocation budgets set in build.gradle.
+ * <p>
+ * The parameterized runner of Robolectric 3.1 ignores {@code Config.constants}, so the manifest
+ * is given by path, and modes are passed by name: parameters are created outside the sandbox.
+ */
+@RunWith(ParameterizedRobolectricTestRunner.class)
+@Config(manifest = "src/main/AndroidManifest.xml", sdk = 21)
+public class SimpleSwipeLayoutGestureTest {
+
+    private static final int MENU_SPAN = 2 * SwipeGestureHarness.MENU_WIDTH;
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "{0}, translation drag {1}")
+    public static List<Object[]> parameters() {
+        List<Object[]> parameters = new ArrayList<>();
+        for (Mode mode : Mode.values()) {
+            parameters.add(new Object[]{mode.name(), false});
+            parameters.add(new Object[]{mode.name(), true});
+        }
+        return parameters;
+    }
+
+    private final Mode mMode;
+    private final boolean mTranslationDrag;
+    private SwipeGestureHarness mHarness;
+
+    public SimpleSwipeLayoutGestureTest(String mode, boolean translationDrag) {
+        mMode = Mode.valueOf(mode);
+        mTranslationDrag = translationDrag;
+    }
+
+    @Before
+    public void setUp() {
+        mHarness = new SwipeGestureHarness(RuntimeEnvironment.application, mMode, mTranslationDrag);
+    }
+
+    @Test
+    public void slowDragPastHalfOpens() {
+        assertGesture("drag", -MENU_SPAN * 3 / 4, 18, SwipeGestureHarness.FRAME_MS, false, Status.Open);
+    }
+
+    @Test
+    public void shortFlingOpens() {
+        assertGesture("fling", -MENU_SPAN / 3, 3, 8, false, Status.Open);
+    }
+
+    @Test
+    public void cancelledShortDragCloses() {
+        assertGesture("cancel", -MENU_SPAN / 4, 6, SwipeGestureHarness.FRAME_MS, true, Status.Close);
+    }
+
+    private void assertGesture(String gesture, int dx, int moves, int moveMs, boolean cancel, Status expected) {
+        mHarness.warmUp(mHarness.drag(dx, moves, moveMs, cancel));
+        mHarness.play(mHarness.drag(dx, moves, moveMs, cancel));
+        mHarness.settle();
+        assertEquals(expected, mHarness.layout.getCurrentStatus());
+        mHarness.assertWithinBudget(gesture);
+    }
+
+}
@@ -0,0 +1,210 @@
+package com.yanxin.library.simpleswipelayout;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.robolectric.Robolectric;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.Scheduler;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays scripted gestures through a {@link SimpleSwipeLayout} in a plain parent that is not
+ * attached to a window, one vsync per step.
+ * Every step dispatches at most one event, runs the main looper tasks queued before the step
+ * (Choreographer callbacks, so the settle spring and the work tracker tick once; what they post
+ * again waits for the next step) and a measure/layout/draw pass.
+ * <p>
+ * Allocations are only counted around the event dispatch and the measure/layout pass, never
+ * around the looper or the draw, which mostly run Robolectric code. The same event is also
+ * sent through a baseline tree of plain views that consumes it, and what that costs is
+ * subtracted, so the framework and shadow dispatch overhead is not charged to the row.
+ */
+class SwipeGestureHarness {
+
+    static final int WIDTH = 480;
+    static final int HEIGHT = 96;
+    static final int MENU_WIDTH = 120;
+    static final int FRAME_MS = 16;
+
+    private static final int MAX_SETTLE_FRAMES = 120;
+
+    final SimpleSwipeLayout layout;
+    private final FrameLayout mParent;
+    private final FrameLayout mBaselineParent;
+    final SwipeWorkBudget budget = new SwipeWorkBudget();
+
+    private final Canvas mCanvas;
+    private final com.sun.management.ThreadMXBean mThreadBean;
+    private final long mMeasureOverhead;
+    private long mTime;
+    private long mPeakAllocatedBytes;
+
+    SwipeGestureHarness(Context context, SimpleSwipeLayout.Mode mode, boolean translationDrag) {
+        // An unpaused looper runs a posted frame callback right away, so one that posts itself
+        // again would never return.
+        ShadowLooper.pauseMainLooper();
+        // Robolectric advances the frame time on every callback it runs, not once per frame.
+        ShadowChoreographer.setFrameInterval(FRAME_MS * 1000000L);
+        layout = new SimpleSwipeLayout(context);
+        layout.addView(new View(context), new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, HEIGHT));
+        for (int i = 0; i < 2; i++)
+            layout.addView(new View(context), new FrameLayout.LayoutParams(
+                    MENU_WIDTH, ViewGroup.LayoutParams.MATCH_PARENT));
+        layout.onFinishInflate();
+        // The row asks its parent to stop intercepting once it drags.
+        mParent = new FrameLayout(context);
+        mParent.addView(layout, new FrameLayout.LayoutParams(WIDTH, HEIGHT));
+        mBaselineParent = createBaseline(context);
+        layout.setMode(mode);
+        layout.setTranslationDragEnabled(translationDrag);
+        budget.setLimits(
+                Integer.getInteger("swipe.budget.maxLayouts", 0),
+                Integer.getInteger("swipe.budget.maxRequestLayouts", 0),
+                Integer.getInteger("swipe.budget.maxInvalidates", 8));
+        layout.setWorkBudget(budget);
+        mCanvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+        mThreadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long start = allocatedBytes();
+        mMeasureOverhead = allocatedBytes() - start;
+        traverse(true);
+    }
+
+    /**
+     * The same tree with a plain FrameLayout as the row, whose content view takes every event.
+     */
+    private static FrameLayout createBaseline(Context context) {
+        FrameLayout row = new FrameLayout(context);
+        for (int i = 0; i < 2; i++)
+            row.addView(new View(context), new FrameLayout.LayoutParams(
+                    MENU_WIDTH, ViewGroup.LayoutParams.MATCH_PARENT));
+        View content = new View(context);
+        content.setOnTouchListener(new View.OnTouchListener() {
+            @Override
+            public boolean onTouch(View v, MotionEvent event) {
+                return true;
+            }
+        });
+        row.addView(content, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, HEIGHT));
+        FrameLayout parent = new FrameLayout(context);
+        parent.addView(row, new FrameLayout.LayoutParams(WIDTH, HEIGHT));
+        parent.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        parent.layout(0, 0, WIDTH, HEIGHT);
+        return parent;
+    }
+
+    /**
+     * Horizontal drag by dx px over the given number of moves, ending with ACTION_UP, or
+     * ACTION_CANCEL when cancel is true. All events are obtained before the first one is sent.
+     */
+    List<MotionEvent> drag(int dx, int moves, int moveMs, boolean cancel) {
+        List<MotionEvent> events = new ArrayList<>(moves + 2);
+        float x = WIDTH - 40;
+        float y = HEIGHT / 2;
+        long downTime = mTime;
+        long time = mTime;
+        events.add(MotionEvent.obtain(downTime, time, MotionEvent.ACTION_DOWN, x, y, 0));
+        for (int i = 1; i <= moves; i++) {
+            time += moveMs;
+            events.add(MotionEvent.obtain(downTime, time, MotionEvent.ACTION_MOVE, x + dx * i / moves, y, 0));
+        }
+        time += moveMs;
+        events.add(MotionEvent.obtain(downTime, time,
+                cancel ? MotionEvent.ACTION_CANCEL : MotionEvent.ACTION_UP, x + dx, y, 0));
+        return events;
+    }
+
+    void play(List<MotionEvent> events) {
+        for (int i = 0; i < events.size(); i++)
+            frame(events.get(i));
+        for (int i = 0; i < events.size(); i++)
+            events.get(i).recycle();
+    }
+
+    void settle() {
+        for (int i = 0; i < MAX_SETTLE_FRAMES && layout.getCurrentStatus() == SimpleSwipeLayout.Status.Middle; i++)
+            frame(null);
+        // One more tick so the tracker closes the last settle frame.
+        frame(null);
+    }
+
+    /**
+     * Play the gesture once without measuring, so lazily created state is not counted, and
+     * return the row to closed.
+     */
+    void warmUp(List<MotionEvent> events) {
+        play(events);
+        settle();
+        layout.setStatus(SimpleSwipeLayout.Status.Close, false);
+        traverse(true);
+        budget.reset();
+        mPeakAllocatedBytes = 0;
+    }
+
+    private void frame(MotionEvent event) {
+        long allocated = 0;
+        if (event != null) {
+            long before = allocatedBytes();
+            mParent.dispatchTouchEvent(event);
+            allocated += allocatedBytes() - before - mMeasureOverhead;
+            before = allocatedBytes();
+            mBaselineParent.dispatchTouchEvent(event);
+            allocated -= allocatedBytes() - before - mMeasureOverhead;
+        }
+        runFrameCallbacks();
+        long before = allocatedBytes();
+        traverse(false);
+        allocated += allocatedBytes() - before - mMeasureOverhead;
+        mPeakAllocatedBytes = Math.max(mPeakAllocatedBytes, allocated);
+        mParent.draw(mCanvas);
+        mTime += FRAME_MS;
+    }
+
+    private static void runFrameCallbacks() {
+        Scheduler scheduler = Robolectric.getForegroundThreadScheduler();
+        for (int queued = scheduler.size(); queued > 0; queued--)
+            scheduler.runOneTask();
+    }
+
+    private void traverse(boolean draw) {
+        if (mParent.isLayoutRequested()) {
+            mParent.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+            mParent.layout(0, 0, WIDTH, HEIGHT);
+        }
+        if (draw)
+            mParent.draw(mCanvas);
+    }
+
+    private long allocatedBytes() {
+        return mThreadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    void assertWithinBudget(String gesture) {
+        String label = gesture + " in " + layout.getMode()
+                + (layout.isTranslationDragEnabled() ? " with translation drag" : "");
+        assertTrue(label + ": no frame was recorded", budget.getFrameCount() > 0);
+        assertEquals(label + ": frames over budget (peak layouts " + budget.getPeakLayouts()
+                        + ", requestLayouts " + budget.getPeakRequestLayouts()
+                        + ", invalidates " + budget.getPeakInvalidates() + ")",
+                0, budget.getViolationCount());
+        long maxAllocated = Long.getLong("swipe.budget.maxAllocatedBytes", 2048);
+        assertTrue(label + ": " + mPeakAllocatedBytes + " bytes allocated in one frame, budget "
+                + maxAllocated, mPeakAllocatedBytes <= maxAllocated);
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.yanxin.library.simpleswipelayout.gesture;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Straight moves from the origin, classified against the drag angle limit.
+ */
+public class GestureClassifierTest {
+
+    private static final float SLOP = 8;
+
+    @Test
+    public void movesInsideSlopStayUndecided() {
+        GestureClassifier classifier = new GestureClassifier(SLOP);
+        classifier.start(0, 0, 0);
+        assertEquals(GestureClassifier.DIRECTION_UNDECIDED, classifier.addSample(SLOP, SLOP));
+    }
+
+    @Test
+    public void movesBelowDefaultAngleAreHorizontal() {
+        for (int degrees : new int[]{0, 30, 45, 50, 60, 69})
+            assertEquals("angle " + degrees, GestureClassifier.DIRECTION_HORIZONTAL, classify(degrees, 70));
+    }
+
+    @Test
+    public void movesAboveDefaultAngleAreVertical() {
+        for (int degrees : new int[]{71, 80, 90})
+            assertEquals("angle " + degrees, GestureClassifier.DIRECTION_VERTICAL, classify(degrees, 70));
+    }
+
+    @Test
+    public void customAngleMovesTheBoundary() {
+        assertEquals(GestureClassifier.DIRECTION_HORIZONTAL, classify(84, 85));
+        assertEquals(GestureClassifier.DIRECTION_VERTICAL, classify(86, 85));
+        assertEquals(GestureClassifier.DIRECTION_HORIZONTAL, classify(29, 30));
+        assertEquals(GestureClassifier.DIRECTION_VERTICAL, classify(31, 30));
+    }
+
+    @Test
+    public void directionStaysLocked() {
+        GestureClassifier classifier = new GestureClassifier(SLOP);
+        classifier.start(0, 0, 0);
+        assertEquals(GestureClassifier.DIRECTION_VERTICAL, classifier.addSample(0, 2 * SLOP));
+        assertEquals(GestureClassifier.DIRECTION_VERTICAL, classifier.addSample(10 * SLOP, 2 * SLOP));
+    }
+
+    /**
+     * Moves from the origin along the given angle in small steps until the classifier decides.
+     */
+    private static int classify(int degrees, float maxDragAngle) {
+        GestureClassifier classifier = new GestureClassifier(SLOP);
+        classifier.setMaxDragAngle(maxDragAngle);
+        classifier.start(0, 0, 0);
+        double radians = Math.toRadians(degrees);
+        for (int step = 1; step <= 100; step++) {
+            int direction = classifier.addSample((float) (Math.cos(radians) * step),
+                    (float) (Math.sin(radians) * step));
+            if (direction != GestureClassifier.DIRECTION_UNDECIDED)
+                return direction;
+        }
+        return GestureClassifier.DIRECTION_UNDECIDED;
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.yanxin.library.simpleswipelayout.gesture;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Order of the listener calls, and one update per frame when batching.
+ */
+public class SwipeDispatcherTest {
+
+    private final StringBuilder mCalls = new StringBuilder();
+    private SwipeDispatcher mDispatcher;
+
+    @Before
+    public void setUp() {
+        mDispatcher = new SwipeDispatcher(new SwipeDispatcher.Callback() {
+            @Override
+            public void onStartOpen() {
+                mCalls.append("startOpen ");
+            }
+
+            @Override
+            public void onOpen() {
+                mCalls.append("open ");
+            }
+
+            @Override
+            public void onStartClose() {
+                mCalls.append("startClose ");
+            }
+
+            @Override
+            public void onClose() {
+                mCalls.append("close ");
+            }
+
+            @Override
+            public void onUpdate(int dx, int dy) {
+                mCalls.append("update(").append(dx).append(") ");
+            }
+
+            @Override
+            public void scheduleFlush() {
+                mCalls.append("schedule ");
+            }
+
+            @Override
+            public void cancelFlush() {
+                mCalls.append("cancel ");
+            }
+        });
+    }
+
+    @Test
+    public void unbatchedUpdatesEveryMove() {
+        mDispatcher.dispatch(SwipeStateMachine.EVENT_START_OPEN, -4, 0);
+        mDispatcher.dispatch(0, -4, 0);
+        mDispatcher.dispatch(SwipeStateMachine.EVENT_OPEN, -2, 0);
+        assertEquals("startOpen update(-4) update(-4) update(-2) open ", mCalls.toString());
+    }
+
+    @Test
+    public void batchedMovesShareOneUpdatePerFrame() {
+        mDispatcher.setBatchUpdates(true);
+        mDispatcher.dispatch(0, -4, 0);
+        mDispatcher.dispatch(0, -3, 0);
+        mDispatcher.flush();
+        assertEquals("schedule cancel update(-7) ", mCalls.toString());
+    }
+
+    @Test
+    public void batchedTransitionFlushesOnceBetweenCallbacks() {
+        mDispatcher.setBatchUpdates(true);
+        mDispatcher.dispatch(0, -4, 0);
+        mDispatcher.dispatch(SwipeStateMachine.EVENT_OPEN, -2, 0);
+        mDispatcher.flush();
+        assertEquals("schedule cancel update(-6) open ", mCalls.toString());
+    }
+
+    @Test
+    public void turningBatchingOffFlushes() {
+        mDispatcher.setBatchUpdates(true);
+        mDispatcher.dispatch(0, -4, 0);
+        mDispatcher.setBatchUpdates(false);
+        assertEquals("schedule cancel update(-4) ", mCalls.toString());
+    }
+
+}